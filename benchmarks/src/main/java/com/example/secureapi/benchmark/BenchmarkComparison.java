@@ -0,0 +1,117 @@
+package com.example.secureapi.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files benchmark by benchmark (same method and parameters):
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.example.secureapi.benchmark.BenchmarkComparison \
+ *     jmh-results/baseline.json jmh-results/current.json [threshold-percent]
+ * </pre>
+ * A result is a regression when it is worse than the baseline by more than the threshold
+ * (default 10%) and by more than both error margins together. Exits with 1 if any regressed.
+ */
+public final class BenchmarkComparison {
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, Score> baseline = read(new File(args[0]));
+        Map<String, Score> current = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14s %9s%n", entry.getKey(), "-", now.format(), "new");
+                continue;
+            }
+            if (!before.unit.equals(now.unit) || before.score == 0) {
+                System.out.printf("%-70s %14s %14s %9s%n", entry.getKey(), before.format(), now.format(), "n/a");
+                continue;
+            }
+
+            double change = (now.score - before.score) / before.score * 100;
+            // Lower is better for time per operation, higher for throughput
+            double worsening = now.higherIsBetter() ? -change : change;
+            boolean regressed = worsening > threshold
+                    && Math.abs(now.score - before.score) > before.error + now.error;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-70s %14s %14s %+8.1f%%%s%n", entry.getKey(), before.format(), now.format(),
+                    change, regressed ? "  REGRESSION" : "");
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf("%-70s %14s %14s %9s%n", missing, baseline.get(missing).format(), "-", "removed");
+            }
+        }
+
+        System.out.printf("%d regression(s) over %.1f%%%n", regressions, threshold);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            String key = result.path("benchmark").asText().replace("com.example.secureapi.benchmark.", "");
+
+            // Parameters in name order, so the key does not depend on the order JMH wrote them
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                params.put(field.getKey(), field.getValue().asText());
+            }
+            if (!params.isEmpty()) {
+                key += params;
+            }
+
+            JsonNode metric = result.path("primaryMetric");
+            scores.put(key, new Score(result.path("mode").asText(), metric.path("score").asDouble(),
+                    metric.path("scoreError").asDouble(0), metric.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    private static final class Score {
+        private final String mode;
+        private final double score;
+        private final double error;
+        private final String unit;
+
+        Score(String mode, double score, double error, String unit) {
+            this.mode = mode;
+            this.score = score;
+            // JMH writes "NaN" when there were too few iterations for an error estimate
+            this.error = Double.isNaN(error) ? 0 : error;
+            this.unit = unit;
+        }
+
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+
+        String format() {
+            return String.format("%.3f %s", score, unit);
+        }
+    }
+}
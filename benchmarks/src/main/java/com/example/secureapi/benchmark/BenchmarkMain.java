@@ -0,0 +1,73 @@
+package com.example.secureapi.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point of benchmarks.jar: the JMH command line, writing JSON results to
+ * {@code jmh-results/<commit>-<time>.json} unless {@code -rf}/{@code -rff} are given.
+ * Two result files are compared with {@link BenchmarkComparison}.
+ */
+public final class BenchmarkMain {
+
+    private static final Path RESULTS_DIR = Paths.get("jmh-results");
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf") && !jmhArgs.contains("-rff") && !isInfoOnly(jmhArgs)) {
+            Files.createDirectories(RESULTS_DIR);
+            String name = commitLabel() + "-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            Path resultFile = RESULTS_DIR.resolve(name + ".json");
+            jmhArgs.addAll(List.of("-rf", "json", "-rff", resultFile.toString()));
+            System.out.println("Results will be written to " + resultFile.toAbsolutePath());
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+
+    private static boolean isInfoOnly(List<String> args) {
+        return args.contains("-h") || args.contains("-l") || args.contains("-lp") || args.contains("-lprof");
+    }
+
+    /**
+     * Short hash of the checked-out commit, marked "-dirty" with uncommitted changes; "local" outside git.
+     */
+    private static String commitLabel() {
+        String commit = git("rev-parse", "--short", "HEAD");
+        if (commit == null || commit.isEmpty()) {
+            return "local";
+        }
+        String changes = git("status", "--porcelain", "--untracked-files=no");
+        return changes == null || changes.isEmpty() ? commit : commit + "-dirty";
+    }
+
+    private static String git(String... args) {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            if (!process.waitFor(10, TimeUnit.SECONDS) || process.exitValue() != 0) {
+                return null;
+            }
+            return output;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.secureapi.benchmark;
+
+import com.example.secureapi.SecureApiApplication;
+import com.example.secureapi.dto.PostCursor;
+import com.example.secureapi.dto.PostDto;
+import com.example.secureapi.repository.PostRepository;
+import com.example.secureapi.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sixteen threads reading feed pages through pools of different sizes with the db-tuned profile.
+ * Each transaction also holds its connection for a simulated network round trip, as it would
+ * against a database on another host, so a pool smaller than the number of threads queues requests.
+ * After each iteration the pool's own meters are printed: the mean wait for a connection
+ * (hikaricp.connections.acquire) and the number of timeouts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(16)
+@Fork(1)
+public class ConnectionPoolContentionBenchmark {
+
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    @Param({"2", "8", "16"})
+    private int poolSize;
+
+    private ConfigurableApplicationContext context;
+    private PostRepository postRepository;
+    private TransactionTemplate transactionTemplate;
+    private Timer acquireTimer;
+    private PostCursor middleCursor;
+    private long acquiredBefore;
+    private double waitedNanosBefore;
+    private double timeoutsBefore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(SecureApiApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--spring.profiles.active=db-tuned",
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--spring.datasource.hikari.minimum-idle=" + poolSize,
+                "--logging.level.root=WARN");
+        postRepository = context.getBean(PostRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        acquireTimer = context.getBean(MeterRegistry.class).get("hikaricp.connections.acquire").timer();
+
+        PostFeedBenchmark.seedPosts(context.getBean(UserRepository.class), postRepository, 5000);
+        PostDto middle = postRepository.findFirstFeedPage(Limit.of(2500)).get(2499);
+        middleCursor = new PostCursor(middle.getCreatedAt(), middle.getId());
+    }
+
+    @Setup(Level.Iteration)
+    public void snapshotPool() {
+        acquiredBefore = acquireTimer.count();
+        waitedNanosBefore = acquireTimer.totalTime(TimeUnit.NANOSECONDS);
+        timeoutsBefore = timeouts();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printPool() {
+        long acquired = acquireTimer.count() - acquiredBefore;
+        double waitedNanos = acquireTimer.totalTime(TimeUnit.NANOSECONDS) - waitedNanosBefore;
+        System.out.printf("  pool=%d acquired=%d mean wait=%.1f us timeouts=%.0f%n",
+                poolSize, acquired, acquired == 0 ? 0.0 : waitedNanos / acquired / 1000, timeouts() - timeoutsBefore);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PostDto> feedPageWithRoundTrip() {
+        return transactionTemplate.execute(status -> {
+            List<PostDto> page = postRepository.findFeedPageAfter(middleCursor.getCreatedAt(), middleCursor.getId(), Limit.of(20));
+            LockSupport.parkNanos(ROUND_TRIP_NANOS);
+            return page;
+        });
+    }
+
+    private double timeouts() {
+        return context.getBean(MeterRegistry.class).get("hikaricp.connections.timeout").counter().count();
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.secureapi.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The functional checks of the former test_api.sh, run by {@link LoadTest} before any load:
+ * the load numbers mean nothing if the endpoints answer the wrong thing.
+ * <p>
+ * Run on its own, it starts each application jar given (by default the servlet and the reactive
+ * one) with a one-thread hashing pool and checks both against the same contract, including the
+ * {@code 503} of a saturated pool. Exits with 1 when a check fails:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.example.secureapi.benchmark.ContractCheck
+ * </pre>
+ */
+public final class ContractCheck {
+
+    private static final List<String> DEFAULT_JARS = List.of(
+            "target/secure-api-0.0.1-SNAPSHOT-exec.jar",
+            "reactive/target/secure-api-reactive-0.0.1-SNAPSHOT.jar");
+    // Printed by both DataInitializers once the sample users exist, after the server is listening
+    private static final String STARTED = "Sample data initialized successfully!";
+    private static final long STARTUP_MILLIS = 60_000;
+    private static final int CONCURRENT_LOGINS = 32;
+
+    private ContractCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jars = args.length > 0 ? List.of(args) : DEFAULT_JARS;
+        List<String> failures = new ArrayList<>();
+        for (String jar : jars) {
+            System.out.printf("%n%s:%n", jar);
+            List<String> jarFailures = runJar(new File(jar));
+            jarFailures.forEach(failure -> failures.add(jar + ": " + failure));
+            System.out.println(jarFailures.isEmpty() ? "  contract holds" : "  " + jarFailures.size() + " checks failed");
+        }
+
+        if (failures.isEmpty()) {
+            System.out.println("All contract checks passed");
+            System.exit(0);
+        }
+        failures.forEach(failure -> System.out.println("FAILED: " + failure));
+        System.exit(1);
+    }
+
+    /**
+     * Returns a description of every failed check; empty if the API behaves as expected.
+     */
+    static List<String> run(LoadClient client) throws Exception {
+        List<String> failures = new ArrayList<>();
+
+        HttpResponse<String> login = client.post("/auth/login", null, Map.of("username", "john_doe", "password", "password123"));
+        expect(failures, "login with valid credentials", login, 200);
+        String token = login.statusCode() == 200 ? client.token(login) : null;
+        if (token == null || token.isEmpty()) {
+            failures.add("login with valid credentials: no token in the response");
+            return failures;
+        }
+
+        expect(failures, "login with invalid credentials",
+                client.post("/auth/login", null, Map.of("username", "john_doe", "password", "wrongpassword")), 401);
+        expect(failures, "register a new user",
+                client.post("/auth/register", null, Map.of("username", "contract_user", "password", "password123", "name", "Contract User")), 200);
+
+        expect(failures, "GET /api/data without a token", client.get("/api/data", null), 401);
+        expect(failures, "GET /api/posts without a token", client.get("/api/posts", null), 401);
+        expect(failures, "POST /api/posts without a token",
+                client.post("/api/posts", null, Map.of("title", "Test", "content", "Test")), 401);
+        expect(failures, "GET /api/posts with an invalid token", client.get("/api/posts", "abc.def.ghi"), 401);
+        expect(failures, "GET /api/posts/export without a token", client.get("/api/posts/export", null), 401);
+
+        expect(failures, "GET /api/data with a token", client.get("/api/data", token), 200);
+        expect(failures, "GET /api/posts with a token", client.get("/api/posts", token), 200);
+        expect(failures, "POST /api/posts with a token",
+                client.post("/api/posts", token, Map.of("title", "Test Post", "content", "This is a test post")), 200);
+
+        HttpResponse<String> xss = client.post("/api/posts", token,
+                Map.of("title", "<script>alert('XSS')</script>", "content", "<img src=x onerror=alert(1)>"));
+        expect(failures, "POST /api/posts with HTML", xss, 200);
+        if (xss.body().contains("<script>") || !xss.body().contains("\\u003Cscript\\u003E")) {
+            failures.add("POST /api/posts with HTML: markup is not escaped in " + xss.body());
+        }
+
+        checkPaging(failures, client, token);
+        checkBulkImport(failures, client, token);
+        checkExport(failures, client, token);
+
+        expect(failures, "login as admin",
+                client.post("/auth/login", null, Map.of("username", "admin", "password", "admin123")), 200);
+
+        expect(failures, "logout", client.post("/auth/logout", token, Map.of()), 200);
+        expect(failures, "GET /api/data with a token revoked by logout", client.get("/api/data", token), 401);
+        expect(failures, "logout without a token", client.post("/auth/logout", null, Map.of()), 401);
+        return failures;
+    }
+
+    /**
+     * Logs in from many clients at once; a saturated hashing pool must answer 503 with Retry-After
+     * and every other login must succeed. Only meaningful with a pool much smaller than the burst.
+     */
+    static List<String> runBusy(LoadClient client) throws Exception {
+        List<String> failures = new ArrayList<>();
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENT_LOGINS);
+        try {
+            List<Future<HttpResponse<String>>> logins = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_LOGINS; i++) {
+                logins.add(clients.submit(() ->
+                        client.post("/auth/login", null, Map.of("username", "jane_smith", "password", "password123"))));
+            }
+            int busy = 0;
+            for (Future<HttpResponse<String>> login : logins) {
+                HttpResponse<String> response = login.get();
+                if (response.statusCode() == 503) {
+                    busy++;
+                    if (response.headers().firstValue("Retry-After").isEmpty()) {
+                        failures.add("503 on a saturated hashing pool: no Retry-After header");
+                    }
+                } else {
+                    expect(failures, "concurrent login", response, 200);
+                }
+            }
+            if (busy == 0) {
+                failures.add(CONCURRENT_LOGINS + " concurrent logins: expected some 503 from the saturated hashing pool, got none");
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        return failures;
+    }
+
+    private static void checkPaging(List<String> failures, LoadClient client, String token) throws Exception {
+        HttpResponse<String> first = client.get("/api/posts?limit=1", token);
+        expect(failures, "GET /api/posts?limit=1", first, 200);
+        String cursor = first.headers().firstValue("X-Next-Cursor").orElse(null);
+        if (first.statusCode() != 200 || client.json(first).size() != 1 || cursor == null) {
+            failures.add("GET /api/posts?limit=1: expected one post and an X-Next-Cursor header, got " + first.body());
+            return;
+        }
+        HttpResponse<String> second = client.get("/api/posts?limit=1&cursor=" + cursor, token);
+        expect(failures, "GET /api/posts?cursor", second, 200);
+        if (second.statusCode() == 200 && (client.json(second).size() != 1
+                || client.json(second).get(0).path("id").asLong() >= client.json(first).get(0).path("id").asLong())) {
+            failures.add("GET /api/posts?cursor: expected the next older post, got " + second.body());
+        }
+        expect(failures, "GET /api/posts with a malformed cursor", client.get("/api/posts?cursor=bogus", token), 400);
+    }
+
+    private static void checkBulkImport(List<String> failures, LoadClient client, String token) throws Exception {
+        String valid = "{\"title\":\"Imported\",\"content\":\"Bulk import\"}";
+        String blank = "{\"title\":\"\",\"content\":\"No title\"}";
+        expectImport(failures, client, "POST /api/posts/bulk (JSON array)",
+                client.post("/api/posts/bulk", token, "application/json", "[" + valid + "," + blank + "," + valid + "]"));
+        expectImport(failures, client, "POST /api/posts/bulk (NDJSON)",
+                client.post("/api/posts/bulk", token, "application/x-ndjson", valid + "\n" + blank + "\n" + valid + "\n"));
+        expectImport(failures, client, "POST /api/posts/bulk (NDJSON with a malformed line)",
+                client.post("/api/posts/bulk", token, "application/x-ndjson", valid + "\n{\"title\": \n" + valid + "\n"));
+
+        HttpResponse<String> truncated = client.post("/api/posts/bulk", token, "application/json", "[" + valid + ",{\"title\": ]");
+        expect(failures, "POST /api/posts/bulk (JSON array with broken syntax)", truncated, 400);
+        // How many items precede the error depends on how far the decoder got, so only the flag is checked
+        if (truncated.statusCode() == 400 && !client.json(truncated).path("truncated").asBoolean()) {
+            failures.add("POST /api/posts/bulk (JSON array with broken syntax): expected a truncated result, got "
+                    + truncated.body());
+        }
+        expect(failures, "POST /api/posts/bulk without a token",
+                client.post("/api/posts/bulk", null, "application/json", "[" + valid + "]"), 401);
+    }
+
+    private static void expectImport(List<String> failures, LoadClient client, String check,
+                                     HttpResponse<String> response) throws Exception {
+        expect(failures, check, response, 200);
+        if (response.statusCode() != 200) {
+            return;
+        }
+        JsonNode result = client.json(response);
+        if (result.path("received").asInt() != 3 || result.path("created").asInt() != 2 || result.path("failed").asInt() != 1
+                || result.path("truncated").asBoolean()
+                || result.path("failures").path(0).path("index").asInt(-1) != 1) {
+            failures.add(check + ": expected 3 received, 2 created and item 1 failed, got " + response.body());
+        }
+    }
+
+    private static void checkExport(List<String> failures, LoadClient client, String token) throws Exception {
+        HttpResponse<String> array = client.get("/api/posts/export", token, "Accept", "application/json");
+        expect(failures, "GET /api/posts/export (JSON)", array, 200);
+        HttpResponse<String> ndjson = client.get("/api/posts/export", token, "Accept", "application/x-ndjson");
+        expect(failures, "GET /api/posts/export (NDJSON)", ndjson, 200);
+        if (array.statusCode() != 200 || ndjson.statusCode() != 200) {
+            return;
+        }
+        JsonNode posts = client.json(array);
+        List<String> lines = ndjson.body().lines().filter(line -> !line.isBlank()).toList();
+        if (!posts.isArray() || posts.size() == 0 || lines.size() != posts.size()) {
+            failures.add("GET /api/posts/export: the JSON array (" + posts.size() + " posts) and the NDJSON lines ("
+                    + lines.size() + ") differ");
+            return;
+        }
+        ObjectMapper reader = new ObjectMapper();
+        if (!reader.readTree(lines.get(0)).equals(posts.get(0))) {
+            failures.add("GET /api/posts/export: the first NDJSON line differs from the first array item");
+        }
+    }
+
+    /**
+     * Starts the jar on a free port, one hashing thread and no per-IP login limit, and runs both checks.
+     */
+    private static List<String> runJar(File jar) throws Exception {
+        if (!jar.isFile()) {
+            return List.of("not found; build it first (mvn install, mvn -f reactive/pom.xml package)");
+        }
+        int port = freePort();
+        Process application = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-jar", jar.getPath(),
+                "--server.port=" + port,
+                "--management.server.port=0",
+                "--auth.hashing.threads=1",
+                "--auth.hashing.queue-capacity=1",
+                "--auth.throttle.ip-max-attempts=1000000",
+                "--logging.level.root=WARN")
+                .redirectErrorStream(true)
+                .start();
+        try {
+            if (!awaitStartup(application)) {
+                return List.of("did not start within " + STARTUP_MILLIS + " ms");
+            }
+            LoadClient client = new LoadClient("http://localhost:" + port, new ObjectMapper());
+            List<String> failures = new ArrayList<>(run(client));
+            failures.addAll(runBusy(client));
+            return failures;
+        } finally {
+            application.destroy();
+            if (!application.waitFor(10, TimeUnit.SECONDS)) {
+                application.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Reads the output of the application until it reports its sample data, and keeps draining it
+     * afterwards so the application never blocks on a full pipe.
+     */
+    private static boolean awaitStartup(Process application) throws Exception {
+        CompletableFuture<Boolean> started = new CompletableFuture<>();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader output = application.inputReader()) {
+                String line;
+                while ((line = output.readLine()) != null) {
+                    if (line.contains(STARTED)) {
+                        started.complete(true);
+                    }
+                }
+            } catch (IOException e) {
+                // The application was stopped
+            }
+            started.complete(false);
+        }, "contract-check-output");
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            return started.get(STARTUP_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void expect(List<String> failures, String check, HttpResponse<String> response, int status) {
+        if (response.statusCode() != status) {
+            failures.add(check + ": expected " + status + ", got " + response.statusCode() + " " + response.body());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.secureapi.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counters of one endpoint, shared by all load clients.
+ * Latencies are recorded in microseconds with three significant digits, up to one minute.
+ */
+final class EndpointStats {
+
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    void record(long elapsedNanos, Outcome outcome) {
+        latencies.recordValue(Math.min(latencies.getHighestTrackableValue(),
+                TimeUnit.NANOSECONDS.toMicros(elapsedNanos)));
+        if (outcome == Outcome.ERROR) {
+            errors.increment();
+        } else if (outcome == Outcome.REJECTED) {
+            rejected.increment();
+        }
+    }
+
+    /**
+     * Summary in the result file format: counts, rates and latency percentiles in milliseconds.
+     */
+    LoadResult.Endpoint summarize(double seconds) {
+        long requests = latencies.getTotalCount();
+        LoadResult.Endpoint summary = new LoadResult.Endpoint();
+        summary.setRequests(requests);
+        summary.setThroughput(requests / seconds);
+        summary.setErrors(errors.sum());
+        summary.setRejected(rejected.sum());
+        summary.setErrorRate(requests == 0 ? 0 : (double) errors.sum() / requests);
+        summary.setRejectedRate(requests == 0 ? 0 : (double) rejected.sum() / requests);
+        summary.setP50Ms(millis(latencies.getValueAtPercentile(50)));
+        summary.setP99Ms(millis(latencies.getValueAtPercentile(99)));
+        summary.setP999Ms(millis(latencies.getValueAtPercentile(99.9)));
+        summary.setMaxMs(millis(latencies.getMaxValue()));
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    enum Outcome {
+        OK,
+        // Load shedding the application does on purpose: 503 from the hashing pool or database, 429 from the throttle
+        REJECTED,
+        ERROR
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.secureapi.benchmark;
+
+import com.example.secureapi.SecureApiApplication;
+import com.example.secureapi.entity.User;
+import com.example.secureapi.repository.PostRepository;
+import com.example.secureapi.repository.UserRepository;
+import com.example.secureapi.security.AuthMetrics;
+import com.example.secureapi.security.JwtUtil;
+import com.example.secureapi.service.PostsChangedEvent;
+import io.jsonwebtoken.MalformedJwtException;
+import jakarta.servlet.Filter;
+import jakarta.servlet.Servlet;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.MappingMatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletMapping;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the Micrometer instrumentation on a typical authenticated request: the security filter
+ * chain plus the DispatcherServlet serving a cursor page of the feed, with metrics enabled and with
+ * every meter and observation disabled, and with request tracing on and off (the tracing filter
+ * runs in front of the security chain, exporting nothing). The difference should stay under 1% of the request time.
+ * Tomcat and its filters (including the http.server.requests observation filter) are not on this path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstrumentationOverheadBenchmark {
+
+    private static final Exception REJECTION = new MalformedJwtException("bogus");
+
+    @Param({"true", "false"})
+    private boolean metrics;
+
+    @Param({"true", "false"})
+    private boolean tracing;
+
+    private ConfigurableApplicationContext context;
+    private ServletContext servletContext;
+    private Filter securityFilterChain;
+    private Filter tracingFilter;
+    private Servlet dispatcherServlet;
+    private AuthMetrics authMetrics;
+    private String token;
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplication(SecureApiApplication.class).run(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--logging.level.root=WARN",
+                // Initialize the DispatcherServlet now; it is called directly, not through Tomcat
+                "--spring.mvc.servlet.load-on-startup=1",
+                "--management.metrics.enable.all=" + metrics,
+                "--management.observations.enable.all=" + metrics,
+                "--tracing.enabled=" + tracing,
+                "--tracing.exporter=none");
+        servletContext = ((WebApplicationContext) context).getServletContext();
+        securityFilterChain = context.getBean("springSecurityFilterChain", Filter.class);
+        tracingFilter = context.getBean("tracingFilter", FilterRegistrationBean.class).getFilter();
+        dispatcherServlet = context.getBean("dispatcherServlet", Servlet.class);
+        authMetrics = context.getBean(AuthMetrics.class);
+
+        PostFeedBenchmark.seedPosts(context.getBean(UserRepository.class), context.getBean(PostRepository.class), 1000);
+        context.publishEvent(new PostsChangedEvent());
+
+        User user = context.getBean(UserRepository.class).findByUsername("john_doe").orElseThrow();
+        token = context.getBean(JwtUtil.class).generateToken(
+                context.getBean(UserDetailsService.class).loadUserByUsername(user.getUsername()), user.getId(), user.getRole());
+
+        MockHttpServletResponse firstPage = get(null);
+        cursor = firstPage.getHeader("X-Next-Cursor");
+        if (firstPage.getStatus() != 200 || cursor == null) {
+            throw new IllegalStateException("Unexpected first page: " + firstPage.getStatus());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse cursorPageRequest() throws ServletException, IOException {
+        return get(cursor);
+    }
+
+    /**
+     * Only the meter calls the filter makes per request, for an absolute number next to the request time.
+     */
+    @Benchmark
+    public void filterMeterCalls() {
+        authMetrics.tokenVerified(1000);
+        authMetrics.principalLoaded(1000, false);
+    }
+
+    /**
+     * The meter calls for a rejected token and a throttled login, which a flood of bogus requests repeats.
+     */
+    @Benchmark
+    public void rejectionMeterCalls() {
+        authMetrics.tokenRejected(1000, REJECTION);
+        authMetrics.authRejected("login", "throttled");
+    }
+
+    private MockHttpServletResponse get(String cursor) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/api/posts");
+        // h2-console is a second servlet, so the security matchers need to know which one serves the request
+        request.setHttpServletMapping(new MockHttpServletMapping("", "", "dispatcherServlet", MappingMatch.DEFAULT));
+        request.addHeader("Authorization", "Bearer " + token);
+        request.setParameter("limit", "20");
+        if (cursor != null) {
+            request.setParameter("cursor", cursor);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        tracingFilter.doFilter(request, response,
+                (tracedRequest, tracedResponse) -> securityFilterChain.doFilter(tracedRequest, tracedResponse, dispatcherServlet::service));
+        return response;
+    }
+}
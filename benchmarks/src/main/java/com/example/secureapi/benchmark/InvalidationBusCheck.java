@@ -0,0 +1,478 @@
+package com.example.secureapi.benchmark;
+
+import com.example.secureapi.SecureApiApplication;
+import com.example.secureapi.entity.User;
+import com.example.secureapi.invalidation.InvalidationBus;
+import com.example.secureapi.invalidation.InvalidationMessage;
+import com.example.secureapi.invalidation.InvalidationRelay;
+import com.example.secureapi.invalidation.LocalInvalidationBus;
+import com.example.secureapi.invalidation.RedisInvalidationBus;
+import com.example.secureapi.repository.UserRepository;
+import com.example.secureapi.security.TokenVersionRegistry;
+import com.example.secureapi.service.UserChangedEvent;
+import com.example.secureapi.service.UserDetailsServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Starts two application contexts on one scratch database, as two nodes of a deployment, and
+ * checks that a user change and a token revocation made on one node reach the other within the
+ * expected delay: first over the local bus, then over the Redis bus through a stand-in broker
+ * that speaks the pub/sub part of the Redis protocol and requires a password, once in plain text
+ * and once over TLS with a self-signed certificate the nodes trust through an SSL bundle. A third
+ * node started after the revocations, more of them than the bus queue holds, must know them all
+ * before it answers its first token check, from the answer of a single node. Stopping the broker
+ * must make a node bypass its user cache within max-staleness, and restarting it must bring the
+ * node back. Exits with 1 when a check fails:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.example.secureapi.benchmark.InvalidationBusCheck
+ * </pre>
+ */
+public final class InvalidationBusCheck {
+
+    private static final long PROPAGATION_BOUND_MILLIS = 1000;
+    private static final long HEARTBEAT_MILLIS = 200;
+    private static final long MAX_STALENESS_MILLIS = 1000;
+    private static final int QUEUE_CAPACITY = 64;
+    // Ten times the bus queue, and more than one part of a resync answer
+    private static final int BULK_REVOCATIONS = 10 * QUEUE_CAPACITY;
+    // The stand-in broker answers one command at a time
+    private static final long BULK_BOUND_MILLIS = 5000;
+    // Longer than the turn of the second node to answer a resync, so a second answer would show
+    private static final long DUPLICATE_ANSWER_WINDOW_MILLIS = 500;
+    // Lettuce reconnects with a growing delay, and the listener container resubscribes after it
+    private static final long RECONNECT_BOUND_MILLIS = 10_000;
+    private static final String PASSWORD = "invalidation-check";
+
+    private InvalidationBusCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> failures = new ArrayList<>();
+        Path directory = Files.createTempDirectory("secure-api-invalidation");
+        StandInBroker broker = new StandInBroker(PASSWORD, null);
+        StandInBroker tlsBroker = new StandInBroker(PASSWORD, serverTls(directory));
+        try {
+            checkNodes(failures, directory.resolve("local"), "local", null);
+
+            broker.start();
+            checkNodes(failures, directory.resolve("redis"), "redis", broker, redisArgs(broker));
+
+            tlsBroker.start();
+            List<String> tlsArgs = new ArrayList<>(List.of(redisArgs(tlsBroker)));
+            tlsArgs.addAll(List.of(
+                    "--spring.data.redis.ssl.enabled=true",
+                    "--spring.data.redis.ssl.bundle=invalidation-check",
+                    "--spring.ssl.bundle.pem.invalidation-check.truststore.certificate=file:" + directory.resolve("broker.pem")));
+            checkNodes(failures, directory.resolve("redis-tls"), "redis", tlsBroker, tlsArgs.toArray(String[]::new));
+        } finally {
+            broker.stop();
+            tlsBroker.stop();
+            try (var files = Files.walk(directory)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        if (failures.isEmpty()) {
+            System.out.println("All invalidation checks passed");
+            System.exit(0);
+        }
+        failures.forEach(failure -> System.out.println("FAILED: " + failure));
+        System.exit(1);
+    }
+
+    private static String[] redisArgs(StandInBroker broker) {
+        return new String[] {
+                "--spring.data.redis.host=127.0.0.1",
+                "--spring.data.redis.port=" + broker.port(),
+                "--spring.data.redis.password=" + PASSWORD,
+                "--spring.data.redis.timeout=1s"};
+    }
+
+    /**
+     * A self-signed certificate for 127.0.0.1, made with keytool: the broker serves it from a PKCS12
+     * key store and the nodes trust it from the PEM file next to it.
+     */
+    private static SSLContext serverTls(Path directory) throws Exception {
+        Path keyStore = directory.resolve("broker.p12");
+        String keytool = Path.of(System.getProperty("java.home"), "bin", "keytool").toString();
+        run(keytool, "-genkeypair", "-alias", "broker", "-keyalg", "EC", "-dname", "CN=localhost",
+                "-ext", "SAN=ip:127.0.0.1,dns:localhost", "-validity", "1",
+                "-keystore", keyStore.toString(), "-storetype", "PKCS12", "-storepass", PASSWORD);
+        run(keytool, "-exportcert", "-rfc", "-alias", "broker", "-keystore", keyStore.toString(),
+                "-storepass", PASSWORD, "-file", directory.resolve("broker.pem").toString());
+
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(keyStore)) {
+            store.load(in, PASSWORD.toCharArray());
+        }
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(store, PASSWORD.toCharArray());
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keyManagers.getKeyManagers(), null, null);
+        return context;
+    }
+
+    private static void run(String... command) throws Exception {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException(String.join(" ", command) + " failed: " + output);
+        }
+    }
+
+    private static void checkNodes(List<String> failures, Path database, String bus, StandInBroker broker,
+                                   String... busArgs) throws Exception {
+        System.out.printf("%n%s bus%s:%n", bus, broker == null ? "" : broker.describe());
+        try (ConfigurableApplicationContext first = startNode(database, bus, busArgs);
+             ConfigurableApplicationContext second = startNode(database, bus, busArgs)) {
+            UserDetailsServiceImpl secondUsers = second.getBean(UserDetailsServiceImpl.class);
+
+            // The user is cached on the second node, then renamed on the first
+            secondUsers.findAuthor("john_doe");
+            long renamed = System.nanoTime();
+            rename(first, "john_doe", "John Renamed");
+            await(failures, bus + ": user change", renamed, PROPAGATION_BOUND_MILLIS,
+                    () -> "John Renamed".equals(secondUsers.findAuthor("john_doe").getName()));
+
+            TokenVersionRegistry firstTokens = first.getBean(TokenVersionRegistry.class);
+            TokenVersionRegistry secondTokens = second.getBean(TokenVersionRegistry.class);
+            long revoked = System.nanoTime();
+            long version = firstTokens.revokeTokens("jane_smith");
+            await(failures, bus + ": token revocation", revoked, PROPAGATION_BOUND_MILLIS,
+                    () -> secondTokens.currentVersion("jane_smith") == version);
+
+            long bulkRevoked = System.nanoTime();
+            for (int i = 0; i < BULK_REVOCATIONS; i++) {
+                firstTokens.revokeTokens("bulk-" + i);
+            }
+            InvalidationRelay firstRelay = first.getBean(InvalidationRelay.class);
+            InvalidationRelay secondRelay = second.getBean(InvalidationRelay.class);
+            // Heartbeats queue behind the revocations, so the nodes may go stale and exchange revocations after
+            await(failures, bus + ": " + BULK_REVOCATIONS + " revocations", bulkRevoked, BULK_BOUND_MILLIS,
+                    () -> secondTokens.revocations().size() > BULK_REVOCATIONS
+                            && !firstRelay.isStale() && !secondRelay.isStale());
+
+            Map<String, String> requestedBy = new ConcurrentHashMap<>();
+            Map<String, Set<String>> answeredBy = new ConcurrentHashMap<>();
+            InvalidationBus observer = observe(first, bus, message -> {
+                if (message.getType() == InvalidationMessage.Type.RESYNC) {
+                    requestedBy.put(message.getRequestId(), message.getOrigin());
+                } else if (message.getType() == InvalidationMessage.Type.REVOCATIONS && message.getRequestId() != null) {
+                    answeredBy.computeIfAbsent(message.getRequestId(), id -> ConcurrentHashMap.newKeySet())
+                            .add(message.getOrigin());
+                }
+            });
+            try (ConfigurableApplicationContext third = startNode(database, bus, busArgs)) {
+                TokenVersionRegistry thirdTokens = third.getBean(TokenVersionRegistry.class);
+                InvalidationRelay thirdRelay = third.getBean(InvalidationRelay.class);
+                // Counted from the end of the startup, which sent the resync request; the timeout is longer
+                await(failures, bus + ": resync answered for a new node", System.nanoTime(), PROPAGATION_BOUND_MILLIS,
+                        thirdRelay::isSynced);
+                // Not awaited: the first check waits for the resync itself
+                if (thirdTokens.currentVersion("jane_smith") != version
+                        || thirdTokens.revocations().size() <= BULK_REVOCATIONS) {
+                    failures.add(bus + ": a new node checked tokens before it knew all revocations ("
+                            + thirdTokens.revocations().size() + ")");
+                }
+                Thread.sleep(DUPLICATE_ANSWER_WINDOW_MILLIS);
+                // Only the new node's request: the others recover from the bulk revocations meanwhile
+                String newNode = thirdRelay.nodeId();
+                int answering = answeredBy.entrySet().stream()
+                        .filter(answer -> newNode.equals(requestedBy.get(answer.getKey())))
+                        .mapToInt(answer -> answer.getValue().size())
+                        .sum();
+                System.out.printf("  %-55s %6d%n", "nodes answering the new node's resync", answering);
+                if (answering != 1) {
+                    failures.add(bus + ": " + answering + " nodes answered the new node's resync");
+                }
+            } finally {
+                observer.close();
+            }
+
+            if (broker != null) {
+                checkOutage(failures, broker, first, second);
+            }
+        }
+    }
+
+    private static void checkOutage(List<String> failures, StandInBroker broker, ConfigurableApplicationContext first,
+                                    ConfigurableApplicationContext second) throws Exception {
+        InvalidationRelay relay = second.getBean(InvalidationRelay.class);
+        UserDetailsServiceImpl secondUsers = second.getBean(UserDetailsServiceImpl.class);
+        secondUsers.findAuthor("admin");
+
+        long stopped = System.nanoTime();
+        broker.stop();
+        await(failures, "redis: cache bypassed after the broker stopped", stopped, MAX_STALENESS_MILLIS + 2 * HEARTBEAT_MILLIS + 500,
+                () -> relay.isStale() && secondUsers.isCacheBypassed());
+        // The change is lost on the bus, but the second node reads from the database meanwhile
+        rename(first, "admin", "Admin Renamed");
+        if (!"Admin Renamed".equals(secondUsers.findAuthor("admin").getName())) {
+            failures.add("redis: a stale node still answers from its cache");
+        }
+
+        long restarted = System.nanoTime();
+        broker.start();
+        await(failures, "redis: cache used again after the broker restarted", restarted, RECONNECT_BOUND_MILLIS,
+                () -> !relay.isStale() && !secondUsers.isCacheBypassed());
+    }
+
+    /**
+     * A bus on the nodes' channel that only listens, as an extra node would.
+     */
+    private static InvalidationBus observe(ConfigurableApplicationContext node, String bus,
+                                           Consumer<InvalidationMessage> listener) {
+        String channel = "invalidation-check-" + bus;
+        InvalidationBus observer = "redis".equals(bus)
+                ? new RedisInvalidationBus(node.getBean(RedisConnectionFactory.class), node.getBean(ObjectMapper.class), channel, 16)
+                : new LocalInvalidationBus(channel);
+        observer.start(listener);
+        return observer;
+    }
+
+    private static ConfigurableApplicationContext startNode(Path database, String bus, String... busArgs) {
+        SpringApplication application = new SpringApplication(SecureApiApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=persistent",
+                "--spring.datasource.url=jdbc:h2:file:" + database,
+                "--invalidation.bus=" + bus,
+                "--invalidation.channel=invalidation-check-" + bus,
+                "--invalidation.heartbeat=" + HEARTBEAT_MILLIS + "ms",
+                "--invalidation.max-staleness=" + MAX_STALENESS_MILLIS + "ms",
+                "--invalidation.queue-capacity=" + QUEUE_CAPACITY,
+                "--logging.level.root=WARN"));
+        args.addAll(List.of(busArgs));
+        return application.run(args.toArray(String[]::new));
+    }
+
+    /**
+     * Renames the user directly in the shared database and announces it the way UserService does.
+     */
+    private static void rename(ConfigurableApplicationContext node, String username, String name) {
+        UserRepository userRepository = node.getBean(UserRepository.class);
+        User user = userRepository.findByUsername(username).orElseThrow();
+        user.setName(name);
+        userRepository.save(user);
+        node.publishEvent(new UserChangedEvent(username));
+    }
+
+    /**
+     * Waits for the condition and prints the time since start, the moment the awaited action began.
+     */
+    private static void await(List<String> failures, String check, long start, long boundMillis,
+                              BooleanSupplier condition) throws InterruptedException {
+        long deadline = start + boundMillis * 1_000_000;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                failures.add(check + ": not seen within " + boundMillis + " ms");
+                System.out.printf("  %-55s not seen within %d ms%n", check, boundMillis);
+                return;
+            }
+            Thread.sleep(1);
+        }
+        System.out.printf("  %-55s %6.1f ms%n", check, (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * SUBSCRIBE and PUBLISH of a Redis server behind AUTH, enough for RedisInvalidationBus on Lettuce:
+     * HELLO is refused, so the client falls back to RESP2 and authenticates with AUTH. Commands sent
+     * before AUTH get NOAUTH. Stopping it closes every connection; starting it again listens on the
+     * same port.
+     */
+    private static final class StandInBroker {
+
+        private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+        private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+        private final String password;
+        private final SSLContext tls;
+        private volatile ServerSocket server;
+        private int port;
+
+        StandInBroker(String password, SSLContext tls) {
+            this.password = password;
+            this.tls = tls;
+        }
+
+        synchronized void start() throws IOException {
+            server = tls == null
+                    ? new ServerSocket(port, 50, InetAddress.getLoopbackAddress())
+                    : tls.getServerSocketFactory().createServerSocket(port, 50, InetAddress.getLoopbackAddress());
+            port = server.getLocalPort();
+            ServerSocket listening = server;
+            Thread acceptor = new Thread(() -> accept(listening), "stand-in-broker");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        synchronized void stop() throws IOException {
+            if (server != null) {
+                server.close();
+                server = null;
+            }
+            for (Socket connection : connections) {
+                connection.close();
+            }
+            connections.clear();
+            subscriptions.clear();
+        }
+
+        int port() {
+            return port;
+        }
+
+        String describe() {
+            return tls == null ? " (password)" : " (password, TLS)";
+        }
+
+        private void accept(ServerSocket listening) {
+            while (!listening.isClosed()) {
+                try {
+                    Socket connection = listening.accept();
+                    connections.add(connection);
+                    Thread handler = new Thread(() -> serve(connection), "stand-in-broker-connection");
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket connection) {
+            try (connection) {
+                InputStream in = new BufferedInputStream(connection.getInputStream());
+                OutputStream out = connection.getOutputStream();
+                boolean authenticated = false;
+                while (true) {
+                    List<String> command = readCommand(in);
+                    if (command == null) {
+                        return;
+                    }
+                    String name = command.get(0).toUpperCase();
+                    if (name.equals("HELLO")) {
+                        write(out, "-ERR unknown command 'HELLO'\r\n");
+                        continue;
+                    }
+                    if (name.equals("AUTH")) {
+                        // AUTH password or AUTH username password
+                        authenticated = password.equals(command.get(command.size() - 1));
+                        write(out, authenticated ? "+OK\r\n" : "-WRONGPASS invalid username-password pair\r\n");
+                        continue;
+                    }
+                    if (!authenticated) {
+                        write(out, "-NOAUTH Authentication required.\r\n");
+                        continue;
+                    }
+                    switch (name) {
+                        case "CLIENT", "SELECT" -> write(out, "+OK\r\n");
+                        case "UNSUBSCRIBE" -> {
+                            subscriptions.removeIf(subscription -> subscription.connection == connection);
+                            for (String channel : command.subList(1, command.size())) {
+                                write(out, "*3\r\n" + bulk("unsubscribe") + bulk(channel) + ":0\r\n");
+                            }
+                        }
+                        case "SUBSCRIBE" -> {
+                            subscriptions.add(new Subscription(command.get(1), connection, out));
+                            write(out, "*3\r\n" + bulk("subscribe") + bulk(command.get(1)) + ":1\r\n");
+                        }
+                        case "PUBLISH" -> {
+                            int receivers = 0;
+                            for (Subscription subscription : subscriptions) {
+                                if (subscription.channel.equals(command.get(1))
+                                        && subscription.send("*3\r\n" + bulk("message") + bulk(command.get(1)) + bulk(command.get(2)))) {
+                                    receivers++;
+                                }
+                            }
+                            write(out, ":" + receivers + "\r\n");
+                        }
+                        case "PING" -> write(out, "+PONG\r\n");
+                        default -> write(out, "-ERR unknown command '" + command.get(0) + "'\r\n");
+                    }
+                }
+            } catch (IOException e) {
+                // The client went away or the broker was stopped
+            } finally {
+                connections.remove(connection);
+                subscriptions.removeIf(subscription -> subscription.connection == connection);
+            }
+        }
+
+        private static String bulk(String item) {
+            return "$" + item.getBytes(StandardCharsets.UTF_8).length + "\r\n" + item + "\r\n";
+        }
+
+        private static void write(OutputStream out, String reply) throws IOException {
+            synchronized (out) {
+                out.write(reply.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        }
+
+        private static List<String> readCommand(InputStream in) throws IOException {
+            String header = readLine(in);
+            if (header == null) {
+                return null;
+            }
+            int count = Integer.parseInt(header.substring(1));
+            List<String> arguments = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = Integer.parseInt(readLine(in).substring(1));
+                byte[] bytes = in.readNBytes(length);
+                readLine(in);
+                arguments.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return arguments;
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int current;
+            while ((current = in.read()) != -1) {
+                if (current == '\n') {
+                    byte[] bytes = line.toByteArray();
+                    return new String(bytes, 0, bytes.length - 1, StandardCharsets.UTF_8);
+                }
+                line.write(current);
+            }
+            return null;
+        }
+
+        private record Subscription(String channel, Socket connection, OutputStream out) {
+            boolean send(String reply) {
+                try {
+                    write(out, reply);
+                    return true;
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.secureapi.benchmark;
+
+import com.example.secureapi.config.JacksonConfig;
+import com.example.secureapi.dto.PostDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
+import com.fasterxml.jackson.core.json.JsonWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes a feed page of PostDto with the original JacksonConfig setup and with the
+ * current one in both modes (non-ASCII escaped, plain UTF-8).
+ * Payload sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonEscapingBenchmark {
+
+    private static final String LATIN = "Always validate input, use parameterized queries & implement proper <b>authentication</b>. ";
+    private static final String CYRILLIC = "Всегда проверяйте входные данные, используйте параметризованные запросы & <b>аутентификацию</b>. ";
+    private static final String CJK = "始终验证输入，使用参数化查询 & 实现正确的<b>身份验证</b>。请勿信任客户端数据。";
+
+    @Param({"latin", "cyrillic", "cjk"})
+    private String script;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper legacyMapper;
+    private ObjectMapper escapedMapper;
+    private ObjectMapper utf8Mapper;
+    private List<PostDto> page;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        legacyMapper = legacyMapper();
+        escapedMapper = new JacksonConfig().objectMapper(new Jackson2ObjectMapperBuilder(), true);
+        utf8Mapper = new JacksonConfig().objectMapper(new Jackson2ObjectMapperBuilder(), false);
+        page = buildPage(text(script), pageSize);
+
+        System.out.printf("%n[%s x%d] payload bytes: legacy=%d escaped=%d utf8=%d%n", script, pageSize,
+                legacyMapper.writeValueAsBytes(page).length,
+                escapedMapper.writeValueAsBytes(page).length,
+                utf8Mapper.writeValueAsBytes(page).length);
+    }
+
+    @Benchmark
+    public byte[] legacyCharacterEscapes() throws JsonProcessingException {
+        return legacyMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] escapedNonAscii() throws JsonProcessingException {
+        return escapedMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] plainUtf8() throws JsonProcessingException {
+        return utf8Mapper.writeValueAsBytes(page);
+    }
+
+    private static String text(String script) {
+        switch (script) {
+            case "cyrillic":
+                return CYRILLIC;
+            case "cjk":
+                return CJK;
+            default:
+                return LATIN;
+        }
+    }
+
+    private static List<PostDto> buildPage(String sentence, int size) {
+        List<PostDto> posts = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        String content = sentence.repeat(10);
+        for (int i = 0; i < size; i++) {
+            posts.add(new PostDto((long) i, sentence.substring(0, 30), content, "Author " + i, now, now));
+        }
+        return posts;
+    }
+
+    /**
+     * The JacksonConfig setup before json.escape-non-ascii, with the escape table rebuilt per factory.
+     */
+    private static ObjectMapper legacyMapper() {
+        ObjectMapper objectMapper = new Jackson2ObjectMapperBuilder().build();
+        objectMapper.configure(JsonWriteFeature.ESCAPE_NON_ASCII.mappedFeature(), true);
+        objectMapper.getFactory().setCharacterEscapes(new CharacterEscapes() {
+            @Override
+            public int[] getEscapeCodesForAscii() {
+                int[] escapes = standardAsciiEscapesForJSON();
+                escapes['<'] = ESCAPE_STANDARD;
+                escapes['>'] = ESCAPE_STANDARD;
+                escapes['&'] = ESCAPE_STANDARD;
+                escapes['\''] = ESCAPE_STANDARD;
+                escapes['"'] = ESCAPE_STANDARD;
+                return escapes;
+            }
+
+            @Override
+            public SerializableString getEscapeSequence(int ch) {
+                return null;
+            }
+        });
+        return objectMapper;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.secureapi.benchmark;
+
+import com.example.secureapi.security.JwtUtil;
+import com.example.secureapi.security.TokenVersionRegistry;
+import com.example.secureapi.security.VerifiedToken;
+import com.example.secureapi.security.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of the filter's token handling before and after
+ * the single-parse verification API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "mySecureJwtSecretKeyThatIsAtLeast256BitsLongForSecurity";
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache verifiedTokenCache;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 86400000L, new TokenVersionRegistry(event -> { }, 86400000L));
+        userDetails = new User("john_doe", "unused", Collections.emptyList());
+        token = jwtUtil.generateToken(userDetails);
+        verifiedTokenCache = new VerifiedTokenCache(jwtUtil, true, 10000);
+    }
+
+    /**
+     * Old filter path: extractUsername, then validateToken calling extractUsername and
+     * isTokenExpired, each rebuilding the key and the parser.
+     */
+    @Benchmark
+    public boolean legacyTripleParse() {
+        String username = legacyClaims(token).getSubject();
+        String validatedUsername = legacyClaims(token).getSubject();
+        Date expiration = legacyClaims(token).getExpiration();
+        return username.equals(userDetails.getUsername())
+                && validatedUsername.equals(userDetails.getUsername())
+                && !expiration.before(new Date());
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        VerifiedToken verifiedToken = jwtUtil.verify(token);
+        return jwtUtil.validateToken(verifiedToken, userDetails);
+    }
+
+    @Benchmark
+    public boolean cachedVerify() {
+        VerifiedToken verifiedToken = verifiedTokenCache.verify(token);
+        return jwtUtil.validateToken(verifiedToken, userDetails);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(userDetails);
+    }
+
+    /**
+     * The token issued on login, with the uid, role and ver claims.
+     */
+    @Benchmark
+    public String generatePrincipalToken() {
+        return jwtUtil.generateToken(userDetails, 1L, "USER");
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.secureapi.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON client for the API, shared by the load tests. Sends are blocking, one per calling thread.
+ */
+final class LoadClient {
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    // HTTP/1.1 explicitly: the default HTTP/2 mode sends an h2c upgrade on every plain-text connection
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    LoadClient(String baseUrl, ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Returns the token, or null if the login was not answered with 200.
+     */
+    String login(String username, String password) throws Exception {
+        HttpResponse<String> response = post("/auth/login", null, Map.of("username", username, "password", password));
+        return response.statusCode() == 200 ? token(response) : null;
+    }
+
+    /**
+     * Token of a successful login response.
+     */
+    String token(HttpResponse<String> loginResponse) throws Exception {
+        return json(loginResponse).path("token").asText();
+    }
+
+    JsonNode json(HttpResponse<String> response) throws Exception {
+        return objectMapper.readTree(response.body());
+    }
+
+    HttpResponse<String> post(String path, String token, Object body) throws Exception {
+        return post(path, token, "application/json", objectMapper.writeValueAsString(body));
+    }
+
+    /**
+     * POST of a body already written in the given content type.
+     */
+    HttpResponse<String> post(String path, String token, String contentType, String body) throws Exception {
+        HttpRequest.Builder request = request(path, token)
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * GET; extra headers are name/value pairs.
+     */
+    HttpResponse<String> get(String path, String token, String... headers) throws Exception {
+        HttpRequest.Builder request = request(path, token).GET();
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            request.header(headers[i], headers[i + 1]);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * GET that drops the body; extra headers are name/value pairs.
+     */
+    HttpResponse<Void> fetch(String path, String token, String... headers) throws Exception {
+        HttpRequest.Builder request = request(path, token).GET();
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            request.header(headers[i], headers[i + 1]);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    /**
+     * Follows X-Next-Cursor from the newest page to the end of the feed.
+     */
+    List<String> collectCursors(String token, int pageSize) throws Exception {
+        List<String> cursors = new ArrayList<>();
+        String path = "/api/posts?limit=" + pageSize;
+        while (true) {
+            String next = fetch(path, token).headers().firstValue("X-Next-Cursor").orElse(null);
+            if (next == null) {
+                return cursors;
+            }
+            cursors.add(next);
+            path = "/api/posts?limit=" + pageSize + "&cursor=" + next;
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.secureapi.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result file of {@link LoadTest}; the stored baseline has the same format.
+ */
+public class LoadResult {
+
+    // Below this many baseline requests a p99 is little more than the slowest request
+    static final long MIN_REQUESTS_FOR_LATENCY_CHECK = 100;
+
+    private int clients;
+    private int seconds;
+    private String java;
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    /**
+     * Compares every endpoint of the baseline with this run and returns one line per regression.
+     * Throughput and the p50/p99 latencies may be worse by {@code tolerance} (a fraction), with
+     * latencies also allowed {@code latencyFloorMs} of absolute slack so sub-millisecond noise does
+     * not fail the run; error and rejection rates may grow by one percentage point. Latencies of
+     * endpoints with too few baseline requests (login bursts in short runs) are not checked.
+     */
+    public List<String> regressionsAgainst(LoadResult baseline, double tolerance, double latencyFloorMs) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Endpoint> entry : baseline.endpoints.entrySet()) {
+            String name = entry.getKey();
+            Endpoint before = entry.getValue();
+            Endpoint now = endpoints.get(name);
+            if (now == null || now.requests == 0) {
+                regressions.add(name + ": no requests in this run");
+                continue;
+            }
+            if (now.throughput < before.throughput * (1 - tolerance)) {
+                regressions.add(String.format("%s: throughput %.1f req/s, baseline %.1f", name, now.throughput, before.throughput));
+            }
+            if (before.requests >= MIN_REQUESTS_FOR_LATENCY_CHECK) {
+                checkLatency(regressions, name, "p50", now.p50Ms, before.p50Ms, tolerance, latencyFloorMs);
+                checkLatency(regressions, name, "p99", now.p99Ms, before.p99Ms, tolerance, latencyFloorMs);
+            }
+            if (now.errorRate > before.errorRate + 0.01) {
+                regressions.add(String.format("%s: error rate %.2f%%, baseline %.2f%%", name, now.errorRate * 100, before.errorRate * 100));
+            }
+            if (now.rejectedRate > before.rejectedRate + 0.01) {
+                regressions.add(String.format("%s: rejected rate %.2f%%, baseline %.2f%%", name, now.rejectedRate * 100, before.rejectedRate * 100));
+            }
+        }
+        return regressions;
+    }
+
+    private static void checkLatency(List<String> regressions, String name, String percentile,
+                                     double now, double before, double tolerance, double floorMs) {
+        if (now > before * (1 + tolerance) && now - before > floorMs) {
+            regressions.add(String.format("%s: %s %.2f ms, baseline %.2f ms", name, percentile, now, before));
+        }
+    }
+
+    public int getClients() {
+        return clients;
+    }
+
+    public void setClients(int clients) {
+        this.clients = clients;
+    }
+
+    public int getSeconds() {
+        return seconds;
+    }
+
+    public void setSeconds(int seconds) {
+        this.seconds = seconds;
+    }
+
+    public String getJava() {
+        return java;
+    }
+
+    public void setJava(String java) {
+        this.java = java;
+    }
+
+    public Map<String, Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Endpoint> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public static class Endpoint {
+        private long requests;
+        private double throughput;
+        private long errors;
+        private long rejected;
+        private double errorRate;
+        private double rejectedRate;
+        private double p50Ms;
+        private double p99Ms;
+        private double p999Ms;
+        private double maxMs;
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public void setRequests(long requests) {
+            this.requests = requests;
+        }
+
+        public double getThroughput() {
+            return throughput;
+        }
+
+        public void setThroughput(double throughput) {
+            this.throughput = throughput;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public void setErrors(long errors) {
+            this.errors = errors;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public void setRejected(long rejected) {
+            this.rejected = rejected;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        public void setErrorRate(double errorRate) {
+            this.errorRate = errorRate;
+        }
+
+        public double getRejectedRate() {
+            return rejectedRate;
+        }
+
+        public void setRejectedRate(double rejectedRate) {
+            this.rejectedRate = rejectedRate;
+        }
+
+        public double getP50Ms() {
+            return p50Ms;
+        }
+
+        public void setP50Ms(double p50Ms) {
+            this.p50Ms = p50Ms;
+        }
+
+        public double getP99Ms() {
+            return p99Ms;
+        }
+
+        public void setP99Ms(double p99Ms) {
+            this.p99Ms = p99Ms;
+        }
+
+        public double getP999Ms() {
+            return p999Ms;
+        }
+
+        public void setP999Ms(double p999Ms) {
+            this.p999Ms = p999Ms;
+        }
+
+        public double getMaxMs() {
+            return maxMs;
+        }
+
+        public void setMaxMs(double maxMs) {
+            this.maxMs = maxMs;
+        }
+    }
+}
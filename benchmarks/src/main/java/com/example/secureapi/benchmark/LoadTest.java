@@ -0,0 +1,327 @@
+package com.example.secureapi.benchmark;
+
+import com.example.secureapi.SecureApiApplication;
+import com.example.secureapi.entity.User;
+import com.example.secureapi.repository.PostRepository;
+import com.example.secureapi.repository.UserRepository;
+import com.example.secureapi.service.PostsChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.File;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * End-to-end load test against an embedded server on H2, run by {@code mvn -f benchmarks/pom.xml -Pload-test verify}.
+ * <p>
+ * First checks the API contract the old test_api.sh covered (401 without a token, escaped HTML, ...),
+ * then runs closed-loop virtual users: each logs in, reuses its token for a mix of feed reads
+ * (newest page with ETag revalidation, cursor pages), directory reads and post writes, and all of
+ * them log in again together every {@code --burst-interval} seconds. Latency is measured from
+ * sending a request to receiving the full response, so a stalled server also holds back the
+ * next request of that client (coordinated omission): compare percentiles between runs of the
+ * same setup, not with open-loop numbers.
+ * <p>
+ * The per-endpoint summary is written to {@code --result} and checked against {@code --baseline};
+ * a missing baseline is created from the run, {@code --record-baseline=true} replaces it.
+ * Arguments not listed in {@link #OPTIONS} go to Spring, e.g. {@code --auth.bcrypt.strength=8}.
+ */
+public final class LoadTest {
+
+    private static final Set<String> OPTIONS = Set.of("clients", "seconds", "warmup", "users", "mode",
+            "burst-interval", "baseline", "result", "record-baseline", "tolerance", "latency-floor-ms");
+
+    private static final String PASSWORD = "password123";
+    private static final int SEEDED_POSTS = 5000;
+    private static final int PAGE_SIZE = 20;
+
+    static final String LOGIN = "POST /auth/login";
+    static final String NEWEST_POSTS = "GET /api/posts";
+    static final String CURSOR_POSTS = "GET /api/posts?cursor";
+    static final String DATA = "GET /api/data";
+    static final String USERS = "GET /api/users";
+    static final String CREATE_POST = "POST /api/posts";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String name = arg.startsWith("--") && separator > 2 ? arg.substring(2, separator) : null;
+            if (name != null && OPTIONS.contains(name)) {
+                options.put(name, arg.substring(separator + 1));
+            } else {
+                springArgs.add(arg);
+            }
+        }
+
+        int clients = Integer.parseInt(options.getOrDefault("clients", "32"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "60"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "15"));
+        int users = Integer.parseInt(options.getOrDefault("users", "20"));
+        Duration burstInterval = Duration.ofSeconds(Long.parseLong(options.getOrDefault("burst-interval", "20")));
+        String mode = options.getOrDefault("mode", "platform");
+        File baselineFile = new File(options.getOrDefault("baseline", "load-baseline.json"));
+        File resultFile = new File(options.getOrDefault("result", "target/load-test/result.json"));
+        boolean recordBaseline = Boolean.parseBoolean(options.getOrDefault("record-baseline", "false"));
+        double tolerance = Double.parseDouble(options.getOrDefault("tolerance", "0.5"));
+        double latencyFloorMs = Double.parseDouble(options.getOrDefault("latency-floor-ms", "2"));
+
+        // Command-line arguments, since default properties would lose to application.properties.
+        // Every virtual user connects from 127.0.0.1, which the per-IP login limit would treat as one client.
+        addUnlessGiven(springArgs, "server.port", "0");
+        addUnlessGiven(springArgs, "logging.level.root", "WARN");
+        addUnlessGiven(springArgs, "auth.throttle.ip-max-attempts", "1000000");
+
+        SpringApplication application = new SpringApplication(SecureApiApplication.class);
+        if ("virtual".equals(mode)) {
+            application.setAdditionalProfiles("virtual-threads");
+        } else if (!"platform".equals(mode)) {
+            throw new IllegalArgumentException("Mode must be platform or virtual: " + mode);
+        }
+
+        LoadResult result;
+        try (ConfigurableApplicationContext context = application.run(springArgs.toArray(new String[0]))) {
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadClient client = new LoadClient("http://localhost:" + port, objectMapper);
+
+            List<String> contractFailures = ContractCheck.run(client);
+            if (!contractFailures.isEmpty()) {
+                contractFailures.forEach(failure -> System.out.println("CONTRACT FAILURE: " + failure));
+                System.exit(1);
+            }
+
+            List<String> usernames = seedUsers(context, users);
+            PostFeedBenchmark.seedPosts(context.getBean(UserRepository.class), context.getBean(PostRepository.class), SEEDED_POSTS);
+            context.publishEvent(new PostsChangedEvent());
+            List<String> cursors = client.collectCursors(client.login("john_doe", PASSWORD), PAGE_SIZE);
+
+            System.out.printf("mode=%s java=%s clients=%d users=%d duration=%ds warmup=%ds burst-interval=%ds%n",
+                    mode, Runtime.version(), clients, users, seconds, warmup, burstInterval.getSeconds());
+
+            if (warmup > 0) {
+                run(client, usernames, cursors, clients, warmup, burstInterval);
+            }
+            Map<String, EndpointStats> stats = run(client, usernames, cursors, clients, seconds, burstInterval);
+
+            result = new LoadResult();
+            result.setClients(clients);
+            result.setSeconds(seconds);
+            result.setJava(Runtime.version().toString());
+            for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+                result.getEndpoints().put(entry.getKey(), entry.getValue().summarize(seconds));
+            }
+        }
+
+        print(result);
+        ObjectMapper writer = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        resultFile.getAbsoluteFile().getParentFile().mkdirs();
+        writer.writeValue(resultFile, result);
+        System.out.println("Result written to " + resultFile.getAbsolutePath());
+
+        if (recordBaseline || !baselineFile.exists()) {
+            writer.writeValue(baselineFile, result);
+            System.out.println("Baseline recorded to " + baselineFile.getAbsolutePath());
+            System.exit(0);
+        }
+
+        List<String> regressions = result.regressionsAgainst(writer.readValue(baselineFile, LoadResult.class),
+                tolerance, latencyFloorMs);
+        regressions.forEach(regression -> System.out.println("REGRESSION " + regression));
+        System.out.printf("%d regression(s) against %s (tolerance %.0f%%)%n",
+                regressions.size(), baselineFile.getPath(), tolerance * 100);
+        System.exit(regressions.isEmpty() ? 0 : 1);
+    }
+
+    private static void addUnlessGiven(List<String> springArgs, String property, String value) {
+        if (springArgs.stream().noneMatch(arg -> arg.startsWith("--" + property + "="))) {
+            springArgs.add("--" + property + "=" + value);
+        }
+    }
+
+    private static List<String> seedUsers(ConfigurableApplicationContext context, int count) {
+        PasswordEncoder passwordEncoder = context.getBean(PasswordEncoder.class);
+        // One hash for all of them: the cost under test is checking it on login, not seeding
+        String hash = passwordEncoder.encode(PASSWORD);
+        List<User> users = new ArrayList<>(count);
+        List<String> usernames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String username = String.format("load_user_%03d", i);
+            users.add(new User(username, hash, "Load User " + i));
+            usernames.add(username);
+        }
+        context.getBean(UserRepository.class).saveAll(users);
+        return usernames;
+    }
+
+    private static Map<String, EndpointStats> run(LoadClient client, List<String> usernames, List<String> cursors,
+                                                  int clients, int seconds, Duration burstInterval)
+            throws InterruptedException {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        for (String endpoint : List.of(LOGIN, NEWEST_POSTS, CURSOR_POSTS, DATA, USERS, CREATE_POST)) {
+            stats.put(endpoint, new EndpointStats());
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofSeconds(seconds).toNanos();
+        Thread[] threads = new Thread[clients];
+        for (int i = 0; i < clients; i++) {
+            VirtualUser user = new VirtualUser(client, usernames.get(i % usernames.size()), cursors, stats,
+                    start, burstInterval.toNanos());
+            threads[i] = new Thread(() -> user.runUntil(deadline), "load-user-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return stats;
+    }
+
+    private static void print(LoadResult result) {
+        System.out.printf("%-24s %9s %9s %8s %8s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Req/s", "Errors", "Rejected", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<String, LoadResult.Endpoint> entry : result.getEndpoints().entrySet()) {
+            LoadResult.Endpoint endpoint = entry.getValue();
+            System.out.printf("%-24s %9d %9.1f %7.2f%% %7.2f%% %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), endpoint.getRequests(), endpoint.getThroughput(),
+                    endpoint.getErrorRate() * 100, endpoint.getRejectedRate() * 100,
+                    endpoint.getP50Ms(), endpoint.getP99Ms(), endpoint.getP999Ms(), endpoint.getMaxMs());
+        }
+    }
+
+    /**
+     * One closed-loop client. Logs in at start and again at each burst boundary, otherwise reuses
+     * its token: 45% newest page (half of them revalidated with If-None-Match), 25% cursor pages,
+     * 12% /api/data, 8% /api/users and 10% new posts.
+     */
+    private static final class VirtualUser {
+        private final LoadClient client;
+        private final String username;
+        private final List<String> cursors;
+        private final Map<String, EndpointStats> stats;
+        private final long start;
+        private final long burstIntervalNanos;
+        private String token;
+        private long loginEpoch = -1;
+        private String eTag;
+
+        VirtualUser(LoadClient client, String username, List<String> cursors, Map<String, EndpointStats> stats,
+                    long start, long burstIntervalNanos) {
+            this.client = client;
+            this.username = username;
+            this.cursors = cursors;
+            this.stats = stats;
+            this.start = start;
+            this.burstIntervalNanos = burstIntervalNanos;
+        }
+
+        void runUntil(long deadline) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long now;
+            while ((now = System.nanoTime()) < deadline) {
+                long epoch = (now - start) / burstIntervalNanos;
+                if (token == null || epoch > loginEpoch) {
+                    login(epoch);
+                    continue;
+                }
+
+                int pick = random.nextInt(100);
+                if (pick < 45) {
+                    boolean revalidate = eTag != null && random.nextBoolean();
+                    HttpResponse<?> response = call(NEWEST_POSTS, () -> revalidate
+                            ? client.fetch("/api/posts?limit=" + PAGE_SIZE, token, "If-None-Match", eTag)
+                            : client.fetch("/api/posts?limit=" + PAGE_SIZE, token), 200, 304);
+                    if (response != null) {
+                        eTag = response.headers().firstValue("ETag").orElse(eTag);
+                    }
+                } else if (pick < 70 && !cursors.isEmpty()) {
+                    String cursor = cursors.get(random.nextInt(cursors.size()));
+                    call(CURSOR_POSTS, () -> client.fetch("/api/posts?limit=" + PAGE_SIZE + "&cursor=" + cursor, token), 200);
+                } else if (pick < 82) {
+                    call(DATA, () -> client.fetch("/api/data", token), 200);
+                } else if (pick < 90) {
+                    call(USERS, () -> client.fetch("/api/users?prefix=load_user_&limit=" + PAGE_SIZE, token), 200);
+                } else {
+                    call(CREATE_POST, () -> client.post("/api/posts", token,
+                            Map.of("title", "Load test post", "content", "Written by " + username + " <b>under load</b>")), 200);
+                }
+            }
+        }
+
+        private void login(long epoch) {
+            @SuppressWarnings("unchecked")
+            HttpResponse<String> response = (HttpResponse<String>) call(LOGIN, () -> client.post("/auth/login", null,
+                    Map.of("username", username, "password", PASSWORD)), 200);
+            if (response != null && response.statusCode() == 200) {
+                try {
+                    token = client.token(response);
+                    loginEpoch = epoch;
+                } catch (Exception e) {
+                    token = null;
+                }
+            } else if (response != null) {
+                // Rejected: honour Retry-After (capped) instead of spinning on the login
+                long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                sleep(Math.min(1000, retryAfter * 1000));
+            }
+        }
+
+        private HttpResponse<?> call(String endpoint, Request request, int... expected) {
+            long begin = System.nanoTime();
+            HttpResponse<?> response;
+            try {
+                response = request.send();
+            } catch (Exception e) {
+                stats.get(endpoint).record(System.nanoTime() - begin, EndpointStats.Outcome.ERROR);
+                return null;
+            }
+            long elapsed = System.nanoTime() - begin;
+
+            int status = response.statusCode();
+            EndpointStats.Outcome outcome = EndpointStats.Outcome.ERROR;
+            for (int code : expected) {
+                if (status == code) {
+                    outcome = EndpointStats.Outcome.OK;
+                }
+            }
+            if (outcome == EndpointStats.Outcome.ERROR && (status == 429 || status == 503)) {
+                outcome = EndpointStats.Outcome.REJECTED;
+            }
+            if (status == 401) {
+                // Token no longer accepted; log in again on the next iteration
+                token = null;
+            }
+            stats.get(endpoint).record(elapsed, outcome);
+            return response;
+        }
+
+        private static void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        HttpResponse<?> send() throws Exception;
+    }
+}
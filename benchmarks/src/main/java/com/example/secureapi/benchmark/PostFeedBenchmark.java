@@ -0,0 +1,113 @@
+package com.example.secureapi.benchmark;
+
+import com.example.secureapi.SecureApiApplication;
+import com.example.secureapi.dto.PostDto;
+import com.example.secureapi.entity.Post;
+import com.example.secureapi.entity.User;
+import com.example.secureapi.repository.PostRepository;
+import com.example.secureapi.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feed page read through full entities (old path) versus the PostDto projection.
+ * Run with {@code -prof gc} to compare allocation per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostFeedBenchmark {
+
+    private static final String LEGACY_FEED_QUERY =
+            "SELECT p FROM Post p LEFT JOIN FETCH p.author ORDER BY p.createdAt DESC, p.id DESC";
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private PostRepository postRepository;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = startApplication();
+        postRepository = context.getBean(PostRepository.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        seedPosts(context.getBean(UserRepository.class), postRepository, 5000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Old feed path: managed Post entities with a fetch-joined User, mapped through the
+     * defensive-copying getAuthor().
+     */
+    @Benchmark
+    public List<PostDto> entityFeedPage() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<Post> posts = entityManager.createQuery(LEGACY_FEED_QUERY, Post.class)
+                    .setMaxResults(pageSize)
+                    .getResultList();
+            List<PostDto> dtos = new ArrayList<>(posts.size());
+            for (Post post : posts) {
+                dtos.add(new PostDto(post.getId(), post.getTitle(), post.getContent(),
+                        post.getAuthor().getName(), post.getCreatedAt(), post.getUpdatedAt()));
+            }
+            return dtos;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Benchmark
+    public List<PostDto> projectedFeedPage() {
+        return postRepository.findFirstFeedPage(Limit.of(pageSize));
+    }
+
+    static ConfigurableApplicationContext startApplication() {
+        SpringApplication application = new SpringApplication(SecureApiApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setDefaultProperties(Map.of(
+                "logging.level.root", "WARN",
+                "spring.jpa.open-in-view", "false"));
+        return application.run();
+    }
+
+    static void seedPosts(UserRepository userRepository, PostRepository postRepository, int count) {
+        User author = userRepository.findByUsername("john_doe").orElseThrow();
+        List<Post> posts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            posts.add(new Post("Benchmark post " + i, "Benchmark content " + i, author));
+        }
+        postRepository.saveAll(posts);
+    }
+}
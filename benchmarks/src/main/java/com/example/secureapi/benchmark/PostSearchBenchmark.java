@@ -0,0 +1,126 @@
+package com.example.secureapi.benchmark;
+
+import com.example.secureapi.dto.PostDto;
+import com.example.secureapi.service.PostSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First result page (20 posts) from PostSearchIndex over a synthetic corpus whose word frequencies
+ * follow Zipf's law, as in natural text: a rare term, the most common term (matches most posts),
+ * two terms of medium frequency, and a common term narrowed by a rare one.
+ * Only the index is measured; the endpoint then loads the 20 posts by primary key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PostSearchBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int TITLE_WORDS = 6;
+    private static final int CONTENT_WORDS = 40;
+
+    @Param({"100000", "1000000"})
+    private int postCount;
+
+    private PostSearchIndex index;
+    private String rareTerm;
+    private String commonTerm;
+    private String twoMediumTerms;
+    private String commonAndRareTerms;
+
+    @Setup
+    public void setUp() {
+        // Only add and search are used, which need neither the repository nor transactions
+        index = new PostSearchIndex(null, null, true, 1000);
+
+        double[] cumulative = new double[VOCABULARY];
+        double sum = 0;
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<PostDto> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < postCount; i++) {
+            String title = text(random, cumulative, TITLE_WORDS);
+            String content = text(random, cumulative, CONTENT_WORDS);
+            batch.add(new PostDto((long) i + 1, title, content, "Author", now, now));
+            if (batch.size() == 10_000) {
+                index.add(batch);
+                batch.clear();
+            }
+        }
+        index.add(batch);
+
+        rareTerm = word(5_000);
+        commonTerm = word(0);
+        twoMediumTerms = word(50) + " " + word(80);
+        commonAndRareTerms = word(0) + " " + word(5_000);
+        System.out.printf("%n%d posts, %d terms; matches on the first page: rare=%d common=%d medium=%d common+rare=%d%n",
+                index.documentCount(), index.termCount(),
+                rareTerm().getPostIds().size(), commonTerm().getPostIds().size(),
+                twoMediumTerms().getPostIds().size(), commonAndRareTerms().getPostIds().size());
+    }
+
+    @Benchmark
+    public PostSearchIndex.Hits rareTerm() {
+        return index.search(rareTerm, 0, 20);
+    }
+
+    @Benchmark
+    public PostSearchIndex.Hits commonTerm() {
+        return index.search(commonTerm, 0, 20);
+    }
+
+    @Benchmark
+    public PostSearchIndex.Hits twoMediumTerms() {
+        return index.search(twoMediumTerms, 0, 20);
+    }
+
+    @Benchmark
+    public PostSearchIndex.Hits commonAndRareTerms() {
+        return index.search(commonAndRareTerms, 0, 20);
+    }
+
+    private static String text(SplittableRandom random, double[] cumulative, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int rank = Arrays.binarySearch(cumulative, target);
+            text.append(word(rank < 0 ? -rank - 1 : rank)).append(' ');
+        }
+        return text.toString();
+    }
+
+    // Letters only, so the index tokenizer keeps each word whole
+    private static String word(int rank) {
+        StringBuilder word = new StringBuilder("w");
+        int value = rank;
+        do {
+            word.append((char) ('a' + value % 26));
+            value /= 26;
+        } while (value > 0);
+        return word.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.secureapi.benchmark;
+
+import com.example.secureapi.SecureApiApplication;
+import com.example.secureapi.dto.PostDto;
+import com.example.secureapi.entity.Post;
+import com.example.secureapi.entity.User;
+import com.example.secureapi.repository.PostRepository;
+import com.example.secureapi.service.PostWriteQueue;
+import com.example.secureapi.service.UserDetailsServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sixteen threads creating posts, each waiting until its post is committed, on a file database
+ * (persistent profile) so every commit has a real cost. "sync" is the default mode, one
+ * transaction per post as in createPost; "group-N" goes through PostWriteQueue with group-size N
+ * and durability=commit. After each iteration the number of posts per committed group is printed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 3)
+@Threads(16)
+@Fork(1)
+public class PostWriteBenchmark {
+
+    @Param({"sync", "group-1", "group-16", "group-100"})
+    private String writeMode;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private PostRepository postRepository;
+    private PostWriteQueue postWriteQueue;
+    private User author;
+    private PostDto post;
+    private long groupsBefore;
+    private long writtenBefore;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        boolean async = !writeMode.equals("sync");
+        directory = Files.createTempDirectory("secure-api-writes");
+        SpringApplication application = new SpringApplication(SecureApiApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--spring.profiles.active=persistent",
+                "--spring.datasource.url=jdbc:h2:file:" + directory.resolve("writes"),
+                "--posts.write.mode=" + (async ? "async" : "sync"),
+                "--posts.write.group-size=" + (async ? writeMode.substring("group-".length()) : "1"),
+                "--posts.write.queue-capacity=1024",
+                "--logging.level.root=WARN");
+        postRepository = context.getBean(PostRepository.class);
+        postWriteQueue = context.getBean(PostWriteQueue.class);
+        author = context.getBean(UserDetailsServiceImpl.class).findAuthor("john_doe");
+        post = new PostDto(null, "Benchmark post", "Written by PostWriteBenchmark", null, null, null);
+    }
+
+    @Setup(Level.Iteration)
+    public void snapshotGroups() {
+        groupsBefore = postWriteQueue.groupCount();
+        writtenBefore = postWriteQueue.writtenCount();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printGroups() {
+        long groups = postWriteQueue.groupCount() - groupsBefore;
+        if (groups > 0) {
+            System.out.printf("  groups=%d mean posts per group=%.1f%n",
+                    groups, (double) (postWriteQueue.writtenCount() - writtenBefore) / groups);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        try (var files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Object createPost() {
+        if (postWriteQueue.isAsync()) {
+            return postWriteQueue.submit(post, author).join();
+        }
+        return postRepository.save(new Post(post.getTitle(), post.getContent(), author));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.secureapi.benchmark;
+
+import com.example.secureapi.SecureApiApplication;
+import com.example.secureapi.dto.PostDto;
+import com.example.secureapi.entity.User;
+import com.example.secureapi.service.PostWriteQueue;
+import com.example.secureapi.service.PostsCreatedEvent;
+import com.example.secureapi.service.UserDetailsServiceImpl;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the async post writer with a PostsCreatedEvent listener that always throws, and checks that
+ * the posts it stored are still answered and that the writer keeps taking posts: more posts are
+ * written, one group at a time, than the queue can hold. Exits with 1 when a check fails:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.example.secureapi.benchmark.PostWriteQueueCheck
+ * </pre>
+ */
+public final class PostWriteQueueCheck {
+
+    private static final int QUEUE_CAPACITY = 16;
+    private static final int GROUPS = 10;
+
+    private PostWriteQueueCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        SpringApplication application = new SpringApplication(SecureApiApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+
+        List<String> failures = new ArrayList<>();
+        try (ConfigurableApplicationContext context = application.run(
+                "--posts.write.mode=async",
+                "--posts.write.queue-capacity=" + QUEUE_CAPACITY,
+                "--posts.write.group-size=" + QUEUE_CAPACITY,
+                "--logging.level.root=OFF")) {
+            context.addApplicationListener(ApplicationListener.forPayload((PostsCreatedEvent event) -> {
+                throw new IllegalStateException("Listener failure injected by PostWriteQueueCheck");
+            }));
+            PostWriteQueue postWriteQueue = context.getBean(PostWriteQueue.class);
+            User author = context.getBean(UserDetailsServiceImpl.class).findAuthor("john_doe");
+            PostDto post = new PostDto(null, "Check post", "Written by PostWriteQueueCheck", null, null, null);
+
+            int stored = 0;
+            for (int group = 0; group < GROUPS; group++) {
+                List<CompletableFuture<PostDto>> results = new ArrayList<>();
+                for (int i = 0; i < QUEUE_CAPACITY; i++) {
+                    results.add(postWriteQueue.submit(post, author));
+                }
+                for (CompletableFuture<PostDto> result : results) {
+                    try {
+                        if (result.get(5, TimeUnit.SECONDS).getId() != null) {
+                            stored++;
+                        }
+                    } catch (TimeoutException e) {
+                        failures.add("group " + group + ": a post was not answered within 5 s");
+                        break;
+                    }
+                }
+                if (!failures.isEmpty()) {
+                    break;
+                }
+            }
+
+            int expected = GROUPS * QUEUE_CAPACITY;
+            System.out.printf("posts stored with a failing listener: %d of %d, groups written: %d%n",
+                    stored, expected, postWriteQueue.groupCount());
+            if (stored != expected) {
+                failures.add("stored " + stored + " of " + expected + " posts");
+            }
+        }
+
+        if (failures.isEmpty()) {
+            System.out.println("The post writer survives a failing listener");
+            System.exit(0);
+        }
+        failures.forEach(failure -> System.out.println("FAILED: " + failure));
+        System.exit(1);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.secureapi.benchmark;
+
+import com.example.secureapi.SecureApiApplication;
+import com.example.secureapi.dto.PostCursor;
+import com.example.secureapi.dto.PostDto;
+import com.example.secureapi.entity.Post;
+import com.example.secureapi.entity.User;
+import com.example.secureapi.repository.PostRepository;
+import com.example.secureapi.repository.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application with the persistent profile on a scratch database file (so the schema
+ * comes from the Flyway migrations and passes Hibernate validation), runs the feed and lookup
+ * queries, and checks with EXPLAIN that H2 answers each of them from the expected index instead
+ * of a table scan or a sort. Exits with 1 when a plan does not match:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.example.secureapi.benchmark.QueryPlanCheck
+ * </pre>
+ */
+public final class QueryPlanCheck {
+
+    private static final List<String> CAPTURED = new ArrayList<>();
+
+    private QueryPlanCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("secure-api-plans");
+        SpringApplication application = new SpringApplication(SecureApiApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+
+        List<String> failures = new ArrayList<>();
+        try (ConfigurableApplicationContext context = application.run(
+                "--spring.profiles.active=persistent",
+                "--spring.datasource.url=jdbc:h2:file:" + directory.resolve("plans"),
+                "--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + Capture.class.getName(),
+                "--logging.level.root=WARN")) {
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            PostRepository postRepository = context.getBean(PostRepository.class);
+            PostFeedBenchmark.seedPosts(userRepository, postRepository, 5000);
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                users.add(new User(String.format("user_%04d", i), "unused-hash", "User " + i));
+            }
+            userRepository.saveAll(users);
+            // Other authors as well, so the author column is as selective as in a real feed
+            List<Post> otherPosts = new ArrayList<>();
+            for (User user : users) {
+                for (int i = 0; i < 5; i++) {
+                    otherPosts.add(new Post("Post " + i, "Content " + i, user));
+                }
+            }
+            postRepository.saveAll(otherPosts);
+            User author = userRepository.findByUsername("john_doe").orElseThrow();
+            PostDto middle = postRepository.findFirstFeedPage(Limit.of(2500)).get(2499);
+            List<PostDto> authorPosts = postRepository.findAuthorPage(author.getId(), null, Limit.of(5000));
+            PostDto authorMiddle = authorPosts.get(authorPosts.size() / 2);
+
+            DataSource dataSource = context.getBean(DataSource.class);
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                // Fresh row counts for the cost-based join order, as a long-running database would have
+                statement.execute("ANALYZE");
+            }
+
+            check(failures, dataSource, "first feed page",
+                    () -> postRepository.findFirstFeedPage(Limit.of(20)),
+                    "IDX_POSTS_CREATED_AT_ID", "index sorted");
+            check(failures, dataSource, "feed page after a cursor",
+                    () -> postRepository.findFeedPageAfter(middle.getCreatedAt(), middle.getId(), Limit.of(20)),
+                    "IDX_POSTS_CREATED_AT_ID: CREATED_AT <=", "index sorted");
+            check(failures, dataSource, "posts of an author",
+                    () -> postRepository.findByAuthorId(author.getId()),
+                    "AUTHOR_ID = ?1");
+            check(failures, dataSource, "first author page",
+                    () -> postRepository.findAuthorPage(author.getId(), null, Limit.of(20)),
+                    "IDX_POSTS_AUTHOR_CREATED_AT_ID: AUTHOR_ID =", "CREATED_AT <=", "index sorted");
+            check(failures, dataSource, "author page after a cursor",
+                    () -> postRepository.findAuthorPage(author.getId(),
+                            new PostCursor(authorMiddle.getCreatedAt(), authorMiddle.getId()), Limit.of(20)),
+                    "IDX_POSTS_AUTHOR_CREATED_AT_ID: AUTHOR_ID =", "CREATED_AT <=", "index sorted");
+            check(failures, dataSource, "posts by id",
+                    () -> postRepository.findFeedByIds(List.of(middle.getId(), authorMiddle.getId())),
+                    ": ID IN(");
+            check(failures, dataSource, "user by username",
+                    () -> userRepository.findByUsername("user_0500"),
+                    "UK_USERS_USERNAME_INDEX_");
+            check(failures, dataSource, "username directory page",
+                    () -> userRepository.findUsernamesByPrefix("user_05", null, Limit.of(20)),
+                    "UK_USERS_USERNAME_INDEX_", "index sorted");
+        } finally {
+            try (var files = Files.walk(directory)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        if (failures.isEmpty()) {
+            System.out.println("All query plans use their indexes");
+            System.exit(0);
+        }
+        failures.forEach(failure -> System.out.println("FAILED: " + failure));
+        System.exit(1);
+    }
+
+    private static void check(List<String> failures, DataSource dataSource, String name, Runnable query,
+                              String... expected) throws Exception {
+        String sql;
+        synchronized (CAPTURED) {
+            CAPTURED.clear();
+            query.run();
+            if (CAPTURED.isEmpty()) {
+                failures.add(name + ": no SQL was executed");
+                return;
+            }
+            sql = CAPTURED.get(CAPTURED.size() - 1);
+        }
+
+        String plan = explain(dataSource, sql);
+        System.out.printf("%n%s:%n%s%n", name, plan);
+        if (plan.contains("tableScan")) {
+            failures.add(name + ": table scan");
+        }
+        for (String fragment : expected) {
+            if (!plan.contains(fragment)) {
+                failures.add(name + ": plan does not contain \"" + fragment + "\"");
+            }
+        }
+    }
+
+    /**
+     * The plan of the exact statement Hibernate sent; H2 explains it with the parameters left unbound.
+     */
+    private static String explain(DataSource dataSource, String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet plan = statement.executeQuery("EXPLAIN " + sql)) {
+            StringBuilder text = new StringBuilder();
+            while (plan.next()) {
+                text.append(plan.getString(1));
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Records every statement Hibernate prepares; configured through a property, so it has to be public.
+     */
+    public static class Capture implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            synchronized (CAPTURED) {
+                CAPTURED.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.secureapi.benchmark;
+
+import com.example.secureapi.dto.PostCursor;
+import com.example.secureapi.dto.PostDto;
+import com.example.secureapi.entity.User;
+import com.example.secureapi.repository.PostRepository;
+import com.example.secureapi.repository.UserRepository;
+import com.example.secureapi.service.AuthorTimelineIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The repository queries behind each request against in-memory H2: the user lookup done on
+ * login and by the filter on a user-cache miss, the username directory page, a feed page
+ * from the middle of the feed, and an author's newest page from the author index and from the
+ * in-memory timeline. PostFeedBenchmark covers the first feed page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryQueryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int USERS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private PostRepository postRepository;
+    private PostCursor middleCursor;
+    private AuthorTimelineIndex authorTimelineIndex;
+    private Long authorId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = PostFeedBenchmark.startApplication();
+        userRepository = context.getBean(UserRepository.class);
+        postRepository = context.getBean(PostRepository.class);
+        PostFeedBenchmark.seedPosts(userRepository, postRepository, 5000);
+
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User(String.format("user_%04d", i), "unused-hash", "User " + i));
+        }
+        userRepository.saveAll(users);
+
+        List<PostDto> page = postRepository.findFirstFeedPage(Limit.of(2500));
+        PostDto middle = page.get(page.size() - 1);
+        middleCursor = new PostCursor(middle.getCreatedAt(), middle.getId());
+
+        authorTimelineIndex = context.getBean(AuthorTimelineIndex.class);
+        authorId = userRepository.findIdByUsername("john_doe").orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> findByUsername() {
+        return userRepository.findByUsername("john_doe");
+    }
+
+    @Benchmark
+    public boolean existsByUsername() {
+        return userRepository.existsByUsername("user_0500");
+    }
+
+    @Benchmark
+    public List<String> usernamePage() {
+        return userRepository.findUsernamesByPrefix("user_", "user_0500", Limit.of(PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<PostDto> cursorFeedPage() {
+        return postRepository.findFeedPageAfter(middleCursor.getCreatedAt(), middleCursor.getId(), Limit.of(PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<PostDto> authorPageFromIndex() {
+        return postRepository.findAuthorPage(authorId, null, Limit.of(PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<PostDto> authorPageFromTimeline() {
+        return authorTimelineIndex.page("john_doe", null, PAGE_SIZE).getPosts();
+    }
+}
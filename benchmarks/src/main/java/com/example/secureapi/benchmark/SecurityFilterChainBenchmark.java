@@ -0,0 +1,109 @@
+package com.example.secureapi.benchmark;
+
+import com.example.secureapi.SecureApiApplication;
+import com.example.secureapi.entity.User;
+import com.example.secureapi.repository.UserRepository;
+import com.example.secureapi.security.JwtUtil;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.MappingMatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletMapping;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole Spring Security filter chain (JwtAuthenticationFilter included) for one request to
+ * a protected path, without Tomcat or the controller: the chain ends in a no-op servlet.
+ * Runs with the principal loaded through UserDetailsService and built from token claims.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityFilterChainBenchmark {
+
+    private static final FilterChain SERVLET = (request, response) -> { };
+
+    @Param({"false", "true"})
+    private boolean statelessPrincipal;
+
+    private ConfigurableApplicationContext context;
+    private ServletContext servletContext;
+    private Filter securityFilterChain;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(SecureApiApplication.class);
+        // Command-line arguments: default properties would lose to application.properties
+        context = application.run(
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--jwt.stateless-principal=" + statelessPrincipal);
+        // The actuator endpoint matcher looks the application context up through the servlet context
+        servletContext = ((WebApplicationContext) context).getServletContext();
+        securityFilterChain = context.getBean("springSecurityFilterChain", Filter.class);
+
+        // The same token login issues, so the stateless mode finds its uid/role/ver claims
+        User user = context.getBean(UserRepository.class).findByUsername("john_doe").orElseThrow();
+        UserDetails userDetails = context.getBean(UserDetailsService.class).loadUserByUsername(user.getUsername());
+        token = context.getBean(JwtUtil.class).generateToken(userDetails, user.getId(), user.getRole());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int validToken() throws ServletException, IOException {
+        return filter("Bearer " + token);
+    }
+
+    @Benchmark
+    public int invalidToken() throws ServletException, IOException {
+        return filter("Bearer abc.def.ghi");
+    }
+
+    @Benchmark
+    public int missingToken() throws ServletException, IOException {
+        return filter(null);
+    }
+
+    private int filter(String authorization) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/api/posts");
+        // h2-console is a second servlet, so the security matchers need to know which one serves the request
+        request.setHttpServletMapping(new MockHttpServletMapping("", "", "dispatcherServlet", MappingMatch.DEFAULT));
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        securityFilterChain.doFilter(request, response, SERVLET);
+        return response.getStatus();
+    }
+}
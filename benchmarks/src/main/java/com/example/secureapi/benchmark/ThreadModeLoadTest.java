@@ -0,0 +1,143 @@
+package com.example.secureapi.benchmark;
+
+import com.example.secureapi.SecureApiApplication;
+import com.example.secureapi.repository.PostRepository;
+import com.example.secureapi.repository.UserRepository;
+import com.example.secureapi.service.PostsChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of the read paths against an embedded server in one thread mode.
+ * Run it once per mode in separate JVMs and compare the summaries:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.example.secureapi.benchmark.ThreadModeLoadTest platform 400 30
+ * java -cp benchmarks/target/benchmarks.jar com.example.secureapi.benchmark.ThreadModeLoadTest virtual 400 30
+ * </pre>
+ * The virtual mode needs a Java 21 runtime. Add {@code -Djdk.tracePinnedThreads=short} to print
+ * every stack where a virtual thread blocked while pinned to its carrier.
+ */
+public final class ThreadModeLoadTest {
+
+    private static final int SEEDED_POSTS = 5000;
+    private static final int PAGE_SIZE = 20;
+
+    private ThreadModeLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "platform";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        SpringApplication application = new SpringApplication(SecureApiApplication.class);
+        if ("virtual".equals(mode)) {
+            application.setAdditionalProfiles("virtual-threads");
+        } else if (!"platform".equals(mode)) {
+            throw new IllegalArgumentException("Mode must be platform or virtual: " + mode);
+        }
+
+        try (ConfigurableApplicationContext context = application.run("--server.port=0", "--logging.level.root=WARN")) {
+            PostFeedBenchmark.seedPosts(context.getBean(UserRepository.class),
+                    context.getBean(PostRepository.class), SEEDED_POSTS);
+            context.publishEvent(new PostsChangedEvent());
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadClient client = new LoadClient("http://localhost:" + port, context.getBean(ObjectMapper.class));
+            String token = client.login("john_doe", "password123");
+            List<String> cursors = client.collectCursors(token, PAGE_SIZE);
+
+            System.out.printf("mode=%s java=%s clients=%d duration=%ds cursors=%d%n",
+                    mode, Runtime.version(), clients, seconds, cursors.size());
+
+            // Warm-up, then the measured run
+            run(client, token, cursors, clients, Math.max(5, seconds / 4));
+            Result result = run(client, token, cursors, clients, seconds);
+            result.print(seconds);
+        }
+    }
+
+    private static Result run(LoadClient client, String token, List<String> cursors, int clients, int seconds)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        long[][] perClient = new long[clients][];
+        AtomicLong errors = new AtomicLong();
+        Thread[] threads = new Thread[clients];
+
+        for (int i = 0; i < clients; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    // Mostly uncached cursor pages (a database query each), some cached first pages
+                    int pick = random.nextInt(10);
+                    String path = pick < 7
+                            ? "/api/posts?limit=" + PAGE_SIZE + "&cursor=" + cursors.get(random.nextInt(cursors.size()))
+                            : pick < 9 ? "/api/posts?limit=" + PAGE_SIZE : "/api/data";
+                    long start = System.nanoTime();
+                    int status = status(client, path, token);
+                    long elapsed = System.nanoTime() - start;
+                    if (status != 200) {
+                        errors.incrementAndGet();
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = elapsed;
+                }
+                perClient[index] = Arrays.copyOf(samples, count);
+            }, "load-client-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] all = Arrays.stream(perClient).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get());
+    }
+
+    private static int status(LoadClient client, String path, String token) {
+        try {
+            return client.fetch(path, token).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static final class Result {
+        private final long[] sortedNanos;
+        private final long errors;
+
+        Result(long[] sortedNanos, long errors) {
+            this.sortedNanos = sortedNanos;
+            this.errors = errors;
+        }
+
+        void print(int seconds) {
+            System.out.printf("requests=%d throughput=%.0f req/s errors=%d%n",
+                    sortedNanos.length, (double) sortedNanos.length / seconds, errors);
+            System.out.printf("latency ms: p50=%.1f p99=%.1f p999=%.1f max=%.1f%n",
+                    percentile(0.50), percentile(0.99), percentile(0.999),
+                    sortedNanos.length == 0 ? 0.0 : sortedNanos[sortedNanos.length - 1] / 1e6);
+        }
+
+        private double percentile(double quantile) {
+            if (sortedNanos.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(quantile * sortedNanos.length) - 1);
+            return sortedNanos[Math.max(0, index)] / 1e6;
+        }
+    }
+}
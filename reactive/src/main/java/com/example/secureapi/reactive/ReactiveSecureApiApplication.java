@@ -0,0 +1,26 @@
+package com.example.secureapi.reactive;
+
+import com.example.secureapi.config.JacksonConfig;
+import com.example.secureapi.security.JwtUtil;
+import com.example.secureapi.security.LoginThrottle;
+import com.example.secureapi.security.PasswordHashingExecutor;
+import com.example.secureapi.security.TokenVersionRegistry;
+import com.example.secureapi.security.VerifiedTokenCache;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+
+/**
+ * The /auth and /api endpoints on WebFlux and R2DBC. Token handling, login admission and
+ * JSON escaping are the same beans the servlet application uses.
+ */
+@SpringBootApplication
+@Import({JwtUtil.class, TokenVersionRegistry.class, VerifiedTokenCache.class,
+        PasswordHashingExecutor.class, LoginThrottle.class, JacksonConfig.class})
+public class ReactiveSecureApiApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveSecureApiApplication.class, args);
+    }
+
+}
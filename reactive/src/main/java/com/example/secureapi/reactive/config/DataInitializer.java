@@ -0,0 +1,45 @@
+package com.example.secureapi.reactive.config;
+
+import com.example.secureapi.reactive.entity.PostRow;
+import com.example.secureapi.reactive.entity.UserRow;
+import com.example.secureapi.reactive.repository.PostRowRepository;
+import com.example.secureapi.reactive.repository.UserRowRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Seeds the same sample users and posts as the servlet application.
+ */
+@Component
+public class DataInitializer implements CommandLineRunner {
+
+    @Autowired
+    private UserRowRepository userRepository;
+
+    @Autowired
+    private PostRowRepository postRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Override
+    public void run(String... args) throws Exception {
+        // Blocking is fine here: runners are called on the main thread before startup completes
+        if (userRepository.count().block() == 0) {
+            UserRow user1 = userRepository.save(new UserRow("john_doe", passwordEncoder.encode("password123"), "John Doe")).block();
+            UserRow user2 = userRepository.save(new UserRow("jane_smith", passwordEncoder.encode("password123"), "Jane Smith")).block();
+            UserRow user3 = userRepository.save(new UserRow("admin", passwordEncoder.encode("admin123"), "Administrator")).block();
+
+            Flux.concat(
+                    postRepository.save(new PostRow("Welcome to Secure API", "This is a sample post demonstrating the secure API functionality.", user1.getId())),
+                    postRepository.save(new PostRow("Security Best Practices", "Always validate input, use parameterized queries, and implement proper authentication.", user2.getId())),
+                    postRepository.save(new PostRow("Getting Started", "To use this API, first register an account, then login to get a JWT token.", user3.getId()))
+            ).blockLast();
+
+            System.out.println("Sample data initialized successfully!");
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.secureapi.reactive.controller;
+
+import com.example.secureapi.controller.ApiController;
+import com.example.secureapi.controller.AuthController;
+import com.example.secureapi.dto.PostCursor;
+import com.example.secureapi.dto.PostDto;
+import com.example.secureapi.dto.PostIngestResult;
+import com.example.secureapi.reactive.entity.PostRow;
+import com.example.secureapi.reactive.entity.UserRow;
+import com.example.secureapi.reactive.repository.PostRowRepository;
+import com.example.secureapi.reactive.repository.UserRowRepository;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Same contract as ApiController (paths, parameters, headers and JSON bodies), on reactive repositories.
+ * The newest feed page is not cached here: PostFeedCache is built on the JPA repository.
+ */
+@RestController
+@RequestMapping("/api")
+public class ReactiveApiController {
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private UserRowRepository userRepository;
+
+    @Autowired
+    private PostRowRepository postRepository;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${posts.ingest.batch-size:1000}")
+    private int batchSize;
+
+    @GetMapping("/data")
+    public Mono<ResponseEntity<?>> getData(@RequestParam(defaultValue = "" + MAX_PAGE_SIZE) int limit, Principal principal) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        return currentUser(principal)
+                .zipWith(userRepository.findUsernamesByPrefix("", null, pageSize).collectList())
+                .map(userAndNames -> withUsernameCursor(ResponseEntity.ok(), userAndNames.getT2(), pageSize)
+                        .body(new ApiController.DataResponse(userAndNames.getT1().getName(), userAndNames.getT2())));
+    }
+
+    @GetMapping("/users")
+    public Mono<ResponseEntity<?>> getUsers(@RequestParam(defaultValue = "") String prefix,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        String after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                after = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                return Mono.just(ResponseEntity.badRequest().body(new AuthController.ErrorResponse("Invalid cursor", "Invalid cursor")));
+            }
+        }
+
+        return userRepository.findUsernamesByPrefix(prefix, after, pageSize)
+                .collectList()
+                .map(usernames -> withUsernameCursor(ResponseEntity.ok(), usernames, pageSize).body(usernames));
+    }
+
+    private static ResponseEntity.BodyBuilder withUsernameCursor(ResponseEntity.BodyBuilder response,
+                                                                 List<String> usernames, int pageSize) {
+        if (usernames.size() == pageSize) {
+            String last = usernames.get(usernames.size() - 1);
+            response.header(ApiController.NEXT_CURSOR_HEADER,
+                    Base64.getUrlEncoder().withoutPadding().encodeToString(last.getBytes(StandardCharsets.UTF_8)));
+        }
+        return response;
+    }
+
+    @GetMapping("/posts")
+    public Mono<ResponseEntity<?>> getPosts(@RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        Flux<PostDto> page;
+        if (cursor == null || cursor.isEmpty()) {
+            page = postRepository.findFirstFeedPage(pageSize);
+        } else {
+            PostCursor after;
+            try {
+                after = PostCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return Mono.just(ResponseEntity.badRequest().body(new AuthController.ErrorResponse("Invalid cursor", e.getMessage())));
+            }
+            page = postRepository.findFeedPageAfter(after.getCreatedAt(), after.getId(), pageSize);
+        }
+
+        return page.collectList().map(posts -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (posts.size() == pageSize) {
+                PostDto last = posts.get(posts.size() - 1);
+                response.header(ApiController.NEXT_CURSOR_HEADER, new PostCursor(last.getCreatedAt(), last.getId()).encode());
+            }
+            return response.body(posts);
+        });
+    }
+
+    // WebFlux writes the Flux element by element, as one JSON array or as NDJSON lines
+    @GetMapping(value = "/posts/export", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<PostDto> exportPosts() {
+        return postRepository.streamFeed();
+    }
+
+    @PostMapping("/posts")
+    public Mono<ResponseEntity<?>> createPost(@Valid @RequestBody PostDto postDto, Principal principal) {
+        return currentUser(principal).flatMap(author -> postRepository
+                .save(new PostRow(postDto.getTitle(), postDto.getContent(), author.getId()))
+                .map(saved -> ResponseEntity.ok(new PostDto(
+                        saved.getId(),
+                        saved.getTitle(),
+                        saved.getContent(),
+                        author.getName(),
+                        saved.getCreatedAt(),
+                        saved.getUpdatedAt()
+                ))));
+    }
+
+    /**
+     * Bulk import of a JSON array with the PostIngestService report format. The body is decoded as it
+     * arrives; unlike the servlet version any undecodable item ends the import, since the decoder
+     * cannot skip it, and the truncated result is answered with 400.
+     */
+    @PostMapping(value = "/posts/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<PostIngestResult>> createPosts(@RequestBody Flux<PostDto> posts, Principal principal) {
+        PostIngestResult result = new PostIngestResult();
+
+        return currentUser(principal).flatMap(author -> importItems(posts
+                .index()
+                .onErrorResume(e -> {
+                    Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+                    result.addFailure(result.getReceived(), "Malformed JSON: " + (cause instanceof JsonProcessingException
+                            ? ((JsonProcessingException) cause).getOriginalMessage() : cause.getMessage()));
+                    result.setReceived(result.getReceived() + 1);
+                    result.setTruncated(true);
+                    return Flux.empty();
+                })
+                .doOnNext(item -> result.setReceived(item.getT1().intValue() + 1)), author, result))
+                .map(imported -> imported.isTruncated()
+                        ? ResponseEntity.badRequest().body(imported) : ResponseEntity.ok(imported));
+    }
+
+    /**
+     * Bulk import of NDJSON: the body is split into lines as it arrives and each line is parsed
+     * on its own, so a malformed line is reported and the import goes on, as in PostIngestService.
+     */
+    @PostMapping(value = "/posts/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<PostIngestResult> createPostsNdjson(@RequestBody Flux<String> lines, Principal principal) {
+        PostIngestResult result = new PostIngestResult();
+
+        return currentUser(principal).flatMap(author -> importItems(lines
+                .filter(line -> !line.isBlank())
+                .index()
+                .doOnNext(line -> result.setReceived(line.getT1().intValue() + 1))
+                .handle((line, sink) -> {
+                    try {
+                        sink.next(Tuples.of(line.getT1(), objectMapper.readValue(line.getT2(), PostDto.class)));
+                    } catch (JsonParseException e) {
+                        result.addFailure(line.getT1().intValue(), "Malformed JSON: " + e.getOriginalMessage());
+                    } catch (JsonProcessingException e) {
+                        result.addFailure(line.getT1().intValue(), "Invalid item: " + e.getOriginalMessage());
+                    }
+                }), author, result));
+    }
+
+    private Mono<PostIngestResult> importItems(Flux<Tuple2<Long, PostDto>> items, UserRow author, PostIngestResult result) {
+        return items
+                .filter(item -> validate(item, result))
+                .buffer(Math.max(1, batchSize))
+                .concatMap(chunk -> insert(chunk, author, result))
+                .then(Mono.fromSupplier(() -> result));
+    }
+
+    private boolean validate(Tuple2<Long, PostDto> item, PostIngestResult result) {
+        if (item.getT2() == null) {
+            result.addFailure(item.getT1().intValue(), "Item is null");
+            return false;
+        }
+        List<String> messages = validator.validate(item.getT2()).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.toList());
+        if (!messages.isEmpty()) {
+            result.addFailure(item.getT1().intValue(), String.join("; ", messages));
+            return false;
+        }
+        return true;
+    }
+
+    private Mono<Void> insert(List<Tuple2<Long, PostDto>> chunk, UserRow author, PostIngestResult result) {
+        List<PostRow> rows = new ArrayList<>(chunk.size());
+        for (Tuple2<Long, PostDto> item : chunk) {
+            rows.add(new PostRow(item.getT2().getTitle(), item.getT2().getContent(), author.getId()));
+        }
+
+        return postRepository.saveAll(rows)
+                .as(transactionalOperator::transactional)
+                .count()
+                .doOnNext(count -> result.addCreated(count.intValue()))
+                .then()
+                // The chunk was rolled back; retry its items one by one to find the ones that fail
+                .onErrorResume(chunkFailure -> Flux.fromIterable(chunk)
+                        .concatMap(item -> postRepository
+                                .save(new PostRow(item.getT2().getTitle(), item.getT2().getContent(), author.getId()))
+                                .doOnNext(saved -> result.addCreated(1))
+                                .then()
+                                .onErrorResume(e -> {
+                                    result.addFailure(item.getT1().intValue(), "Could not be stored: " + e.getMessage());
+                                    return Mono.empty();
+                                }))
+                        .then());
+    }
+
+    private Mono<UserRow> currentUser(Principal principal) {
+        return userRepository.findByUsername(principal.getName())
+                .switchIfEmpty(Mono.error(new RuntimeException("User not found")));
+    }
+}
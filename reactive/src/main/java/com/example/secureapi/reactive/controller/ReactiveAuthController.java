@@ -0,0 +1,150 @@
+package com.example.secureapi.reactive.controller;
+
+import com.example.secureapi.controller.AuthController;
+import com.example.secureapi.dto.AuthRequest;
+import com.example.secureapi.dto.AuthResponse;
+import com.example.secureapi.reactive.entity.UserRow;
+import com.example.secureapi.reactive.repository.UserRowRepository;
+import com.example.secureapi.security.JwtUserPrincipal;
+import com.example.secureapi.security.JwtUtil;
+import com.example.secureapi.security.LoginThrottle;
+import com.example.secureapi.security.PasswordHashingExecutor;
+import com.example.secureapi.security.TokenVersionRegistry;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Same contract as AuthController. BCrypt still runs on the bounded hashing pool,
+ * never on the event loop.
+ */
+@RestController
+@RequestMapping("/auth")
+public class ReactiveAuthController {
+
+    @Autowired
+    private UserRowRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired
+    private Validator validator;
+
+    // Unknown usernames are checked against this hash, so they cost the same BCrypt work as a wrong password
+    private volatile String unknownUserHash;
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<?>> login(@Valid @RequestBody AuthRequest authRequest, ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String clientIp = remoteAddress == null ? "unknown" : remoteAddress.getAddress().getHostAddress();
+        long retryAfter = loginThrottle.retryAfterSeconds(authRequest.getUsername(), clientIp);
+        if (retryAfter > 0) {
+            return Mono.just(ResponseEntity.status(429)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                    .body(new AuthController.ErrorResponse("Too many login attempts", "Try again later")));
+        }
+
+        return userRepository.findByUsername(authRequest.getUsername())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(user -> {
+                    CompletableFuture<ResponseEntity<?>> response =
+                            passwordHashingExecutor.submit(() -> authenticate(authRequest, user.orElse(null), clientIp));
+                    // Counted once accepted: a 503 from a saturated pool is not the client's attempt
+                    loginThrottle.recordAttempt(clientIp);
+                    return Mono.fromFuture(response);
+                })
+                .onErrorResume(RejectedExecutionException.class, e -> Mono.just(serviceBusy()));
+    }
+
+    private ResponseEntity<?> authenticate(AuthRequest authRequest, UserRow user, String clientIp) {
+        String storedHash = user != null ? user.getPassword() : unknownUserHash();
+        if (!passwordEncoder.matches(authRequest.getPassword(), storedHash) || user == null) {
+            loginThrottle.recordFailure(authRequest.getUsername(), clientIp);
+            return ResponseEntity.status(401).body(new AuthController.ErrorResponse("Authentication failed", "Invalid username or password"));
+        }
+        loginThrottle.recordSuccess(authRequest.getUsername(), clientIp);
+
+        JwtUserPrincipal principal = new JwtUserPrincipal(user.getId(), user.getUsername(), user.getRole());
+        String token = jwtUtil.generateToken(principal, user.getId(), user.getRole());
+
+        return ResponseEntity.ok(new AuthResponse(token, user.getUsername(), user.getName()));
+    }
+
+    private String unknownUserHash() {
+        if (unknownUserHash == null) {
+            unknownUserHash = passwordEncoder.encode("userNotFoundPassword");
+        }
+        return unknownUserHash;
+    }
+
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<?>> logout() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(authentication -> authentication.isAuthenticated()
+                        && !(authentication instanceof AnonymousAuthenticationToken))
+                .<ResponseEntity<?>>map(authentication -> {
+                    // Invalidates every token issued to this user so far
+                    tokenVersionRegistry.revokeTokens(authentication.getName());
+                    return ResponseEntity.ok(new AuthController.RegisterResponse("User logged out successfully", authentication.getName()));
+                })
+                .defaultIfEmpty(ResponseEntity.status(401).body(new AuthController.ErrorResponse("Logout failed", "Authentication is required")));
+    }
+
+    @PostMapping("/register")
+    public Mono<ResponseEntity<?>> register(@RequestBody UserRow user) {
+        String violations = validator.validate(user).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        if (!violations.isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().body(new AuthController.ErrorResponse("Registration failed", violations)));
+        }
+
+        return userRepository.existsByUsername(user.getUsername())
+                .flatMap(exists -> exists
+                        ? Mono.<String>error(new IllegalArgumentException("Username already exists"))
+                        : Mono.fromFuture(passwordHashingExecutor.submit(() -> passwordEncoder.encode(user.getPassword()))))
+                .flatMap(hash -> userRepository.save(new UserRow(user.getUsername(), hash, user.getName())))
+                .<ResponseEntity<?>>map(saved -> ResponseEntity.ok(
+                        new AuthController.RegisterResponse("User registered successfully", saved.getUsername())))
+                .onErrorResume(RejectedExecutionException.class, e -> Mono.just(serviceBusy()))
+                .onErrorResume(e -> Mono.just(ResponseEntity.badRequest()
+                        .body(new AuthController.ErrorResponse("Registration failed", e.getMessage()))));
+    }
+
+    private ResponseEntity<?> serviceBusy() {
+        return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingExecutor.getRetryAfterSeconds()))
+                .body(new AuthController.ErrorResponse("Service busy", "Too many concurrent authentication requests"));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.secureapi.reactive.repository;
+
+import com.example.secureapi.dto.PostDto;
+import com.example.secureapi.reactive.entity.PostRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface PostRowRepository extends ReactiveCrudRepository<PostRow, Long> {
+
+    // Same keyset order and index-friendly predicates as PostRepository, projected straight into the shared PostDto
+    @Query("SELECT p.id, p.title, p.content, u.name AS author_name, p.created_at, p.updated_at " +
+            "FROM posts p LEFT JOIN users u ON u.id = p.author_id " +
+            "ORDER BY p.created_at DESC, p.id DESC LIMIT :limit")
+    Flux<PostDto> findFirstFeedPage(int limit);
+
+    @Query("SELECT p.id, p.title, p.content, u.name AS author_name, p.created_at, p.updated_at " +
+            "FROM posts p LEFT JOIN users u ON u.id = p.author_id " +
+            "WHERE p.created_at <= :createdAt AND (p.created_at < :createdAt OR p.id < :id) " +
+            "ORDER BY p.created_at DESC, p.id DESC LIMIT :limit")
+    Flux<PostDto> findFeedPageAfter(LocalDateTime createdAt, Long id, int limit);
+
+    @Query("SELECT p.id, p.title, p.content, u.name AS author_name, p.created_at, p.updated_at " +
+            "FROM posts p LEFT JOIN users u ON u.id = p.author_id ORDER BY p.created_at DESC, p.id DESC")
+    Flux<PostDto> streamFeed();
+}
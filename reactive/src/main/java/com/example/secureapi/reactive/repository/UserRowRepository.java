@@ -0,0 +1,28 @@
+package com.example.secureapi.reactive.repository;
+
+import com.example.secureapi.reactive.entity.UserRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface UserRowRepository extends ReactiveCrudRepository<UserRow, Long> {
+    Mono<UserRow> findByUsername(String username);
+
+    Mono<Boolean> existsByUsername(String username);
+
+    // Keyset page over the unique username index, same contract as UserRepository.findUsernamePage
+    @Query("SELECT username FROM users WHERE username LIKE :pattern ESCAPE '\\' AND username > :after " +
+            "ORDER BY username LIMIT :limit")
+    Flux<String> findUsernamePage(String pattern, String after, int limit);
+
+    /**
+     * Usernames starting with the prefix (matched literally) after the given one, in order.
+     */
+    default Flux<String> findUsernamesByPrefix(String prefix, String after, int limit) {
+        String escaped = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return findUsernamePage(escaped + "%", after == null ? "" : after, limit);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.secureapi.reactive.security;
+
+import com.example.secureapi.security.JwtUserPrincipal;
+import com.example.secureapi.security.JwtUtil;
+import com.example.secureapi.security.VerifiedToken;
+import com.example.secureapi.security.VerifiedTokenCache;
+import io.jsonwebtoken.JwtException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of JwtAuthenticationFilter: same token cache, same validation rules,
+ * but the user lookup is a reactive query and the authentication goes into the Reactor context.
+ * Created by ReactiveSecurityConfig rather than as a bean, so WebFlux does not also run it outside the security chain.
+ */
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final ReactiveUserDetailsService userDetailsService;
+    private final boolean statelessPrincipal;
+
+    public JwtAuthenticationWebFilter(JwtUtil jwtUtil,
+                                      VerifiedTokenCache verifiedTokenCache,
+                                      ReactiveUserDetailsService userDetailsService,
+                                      boolean statelessPrincipal) {
+        this.jwtUtil = jwtUtil;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.userDetailsService = userDetailsService;
+        this.statelessPrincipal = statelessPrincipal;
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        String authorizationHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        VerifiedToken verifiedToken = null;
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+            try {
+                // Signature checks are CPU-only and cached, so they stay on the event loop
+                verifiedToken = verifiedTokenCache.verify(authorizationHeader.substring(7));
+            } catch (JwtException | IllegalArgumentException e) {
+                // Invalid or expired token: continue unauthenticated and let the entry point answer 401
+                verifiedToken = null;
+            }
+        }
+
+        if (verifiedToken == null || verifiedToken.getUsername() == null) {
+            return chain.filter(exchange);
+        }
+
+        VerifiedToken token = verifiedToken;
+        return loadPrincipal(token)
+                .filter(userDetails -> jwtUtil.validateToken(token, userDetails))
+                .map(userDetails -> (Authentication) new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities()))
+                .flatMap(authentication -> chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication))
+                        .thenReturn(true))
+                .switchIfEmpty(Mono.defer(() -> chain.filter(exchange).thenReturn(false)))
+                .then();
+    }
+
+    private Mono<UserDetails> loadPrincipal(VerifiedToken verifiedToken) {
+        // In stateless mode the token already identifies the user; revocation is checked in validateToken
+        if (statelessPrincipal && verifiedToken.hasPrincipalClaims()) {
+            return Mono.just(new JwtUserPrincipal(verifiedToken.getUserId(), verifiedToken.getUsername(), verifiedToken.getRole()));
+        }
+        return userDetailsService.findByUsername(verifiedToken.getUsername());
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.secureapi.reactive.security;
+
+import com.example.secureapi.reactive.repository.UserRowRepository;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+
+@Service
+public class ReactiveUserDetailsServiceImpl implements ReactiveUserDetailsService {
+
+    private final UserRowRepository userRepository;
+
+    public ReactiveUserDetailsServiceImpl(UserRowRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return userRepository.findByUsername(username)
+                .map(user -> new User(
+                        user.getUsername(),
+                        user.getPassword(),
+                        new ArrayList<>() // No authorities for simplicity
+                ));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.secureapi.config;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Same meter names and tags as Micrometer's CaffeineCacheMetrics, read from the stats our caches expose,
+ * for the binders of the components that own a cache.
+ */
+public final class CacheMeters {
+
+    private CacheMeters() {
+    }
+
+    /**
+     * Meters hold their state object weakly, so they are bound to the owning bean rather than to a lambda.
+     */
+    public static <T> void bind(MeterRegistry registry, String name, T owner,
+                                Function<T, CacheStats> stats, ToDoubleFunction<T> size) {
+        Gauge.builder("cache.size", owner, size)
+                .description("Estimated number of entries in the cache")
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("cache.gets", owner, o -> stats.apply(o).hitCount())
+                .description("Cache lookups that found an entry")
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", owner, o -> stats.apply(o).missCount())
+                .description("Cache lookups that had to load the entry")
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", owner, o -> stats.apply(o).evictionCount())
+                .description("Entries removed for size or expiry")
+                .tag("cache", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.secureapi.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hikari reports a leak (a connection held past leak-detection-threshold) only as a log warning;
+ * this counts those warnings so they can be alerted on next to the other pool meters.
+ */
+@Component
+public class ConnectionLeakMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Counter leaks = Counter.builder("hikaricp.connections.leaks")
+                .description("Connections held longer than the leak detection threshold")
+                .register(registry);
+        if (LoggerFactory.getLogger("com.zaxxer.hikari.pool.ProxyLeakTask") instanceof Logger logger) {
+            AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
+                @Override
+                protected void append(ILoggingEvent event) {
+                    // The leak is a WARN; the INFO that follows reports the connection coming back
+                    if (event.getLevel() == Level.WARN) {
+                        leaks.increment();
+                    }
+                }
+            };
+            appender.setName("connection-leak-metrics");
+            appender.setContext(logger.getLoggerContext());
+            appender.start();
+            logger.addAppender(appender);
+        }
+    }
+}
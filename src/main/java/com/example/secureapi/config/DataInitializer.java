@@ -4,8 +4,11 @@ import com.example.secureapi.entity.Post;
 import com.example.secureapi.entity.User;
 import com.example.secureapi.repository.PostRepository;
 import com.example.secureapi.repository.UserRepository;
+import com.example.secureapi.service.PostsChangedEvent;
+import com.example.secureapi.service.UserChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -21,6 +24,9 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public void run(String... args) throws Exception {
         // Create sample users
@@ -33,6 +39,11 @@ public class DataInitializer implements CommandLineRunner {
             userRepository.save(user2);
             userRepository.save(user3);
 
+            // The server already accepts requests here, so drop any "not found" cached by an early login
+            eventPublisher.publishEvent(new UserChangedEvent(user1.getUsername()));
+            eventPublisher.publishEvent(new UserChangedEvent(user2.getUsername()));
+            eventPublisher.publishEvent(new UserChangedEvent(user3.getUsername()));
+
             // Create sample posts
             Post post1 = new Post("Welcome to Secure API", "This is a sample post demonstrating the secure API functionality.", user1);
             Post post2 = new Post("Security Best Practices", "Always validate input, use parameterized queries, and implement proper authentication.", user2);
@@ -41,6 +52,7 @@ public class DataInitializer implements CommandLineRunner {
             postRepository.save(post1);
             postRepository.save(post2);
             postRepository.save(post3);
+            eventPublisher.publishEvent(new PostsChangedEvent());
 
             System.out.println("Sample data initialized successfully!");
         }
@@ -1,6 +1,7 @@
 package com.example.secureapi.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -11,13 +12,16 @@ public class JacksonConfig {
 
     @Bean
     @Primary
-    public ObjectMapper objectMapper(Jackson2ObjectMapperBuilder builder) {
+    public ObjectMapper objectMapper(Jackson2ObjectMapperBuilder builder,
+                                     @Value("${json.escape-non-ascii:true}") boolean escapeNonAscii) {
         ObjectMapper objectMapper = builder.build();
 
         // Enable HTML escaping to prevent XSS attacks
-        // This will automatically escape dangerous HTML characters in all JSON responses
+        // This will automatically escape dangerous HTML characters in all JSON responses.
+        // Non-ASCII escaping is optional: without it non-Latin text is written as plain UTF-8,
+        // which is 2-3x smaller and skips Jackson's per-character escape path
         objectMapper.configure(
-            com.fasterxml.jackson.core.json.JsonWriteFeature.ESCAPE_NON_ASCII.mappedFeature(), true
+            com.fasterxml.jackson.core.json.JsonWriteFeature.ESCAPE_NON_ASCII.mappedFeature(), escapeNonAscii
         );
 
         objectMapper.getFactory().setCharacterEscapes(new HtmlEscapingCharacterEscapes());
@@ -31,8 +35,32 @@ public class JacksonConfig {
      * to avoid holding unnecessary references and improve performance.
      */
     private static class HtmlEscapingCharacterEscapes extends com.fasterxml.jackson.core.io.CharacterEscapes {
+        // Built once; Jackson scans strings against this table and bulk-copies runs without escapes
+        private static final int[] ASCII_ESCAPES = buildAsciiEscapes();
+
+        // Valid JSON but line terminators in JavaScript; only reached when non-ASCII escaping is off
+        private static final com.fasterxml.jackson.core.SerializableString LINE_SEPARATOR =
+                new com.fasterxml.jackson.core.io.SerializedString("\\u2028");
+        private static final com.fasterxml.jackson.core.SerializableString PARAGRAPH_SEPARATOR =
+                new com.fasterxml.jackson.core.io.SerializedString("\\u2029");
+
         @Override
         public int[] getEscapeCodesForAscii() {
+            return ASCII_ESCAPES;
+        }
+
+        @Override
+        public com.fasterxml.jackson.core.SerializableString getEscapeSequence(int ch) {
+            if (ch == 0x2028) {
+                return LINE_SEPARATOR;
+            }
+            if (ch == 0x2029) {
+                return PARAGRAPH_SEPARATOR;
+            }
+            return null;
+        }
+
+        private static int[] buildAsciiEscapes() {
             int[] escapes = standardAsciiEscapesForJSON();
             escapes['<'] = com.fasterxml.jackson.core.io.CharacterEscapes.ESCAPE_STANDARD;
             escapes['>'] = com.fasterxml.jackson.core.io.CharacterEscapes.ESCAPE_STANDARD;
@@ -41,10 +69,5 @@ public class JacksonConfig {
             escapes['\"'] = com.fasterxml.jackson.core.io.CharacterEscapes.ESCAPE_STANDARD;
             return escapes;
         }
-
-        @Override
-        public com.fasterxml.jackson.core.SerializableString getEscapeSequence(int ch) {
-            return null;
-        }
     }
 }
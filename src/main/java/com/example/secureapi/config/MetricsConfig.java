@@ -0,0 +1,25 @@
+package com.example.secureapi.config;
+
+import com.example.secureapi.web.MeteredJsonHttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Replaces Boot's JSON converter with the metered one. The statistics the components keep (cache
+ * hit rates, queue backlogs, bus lag) are bound by a MeterBinder next to each of them; request
+ * timings (http.server.requests) and repository timings (spring.data.repository.invocations) come
+ * from Actuator itself, as do the connection pool meters (hikaricp.connections.acquire, .active,
+ * .pending, .usage, .timeout).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   MeterRegistry registry) {
+        return new MeteredJsonHttpMessageConverter(objectMapper, registry);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.secureapi.config;
+
+import com.example.secureapi.tracing.RepositoryTracingListener;
+import com.example.secureapi.tracing.RequestTracer;
+import com.example.secureapi.tracing.TracingFilter;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Registers the request tracing filter ahead of the Spring Security chain and adds the tracing
+ * listener to every repository, the same way Actuator attaches its repository metrics.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter(RequestTracer requestTracer) {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter(requestTracer));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Bean
+    public static BeanPostProcessor repositoryTracingPostProcessor() {
+        RepositoryTracingListener listener = new RepositoryTracingListener();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(listener));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,32 +1,91 @@
 package com.example.secureapi.controller;
 
+import com.example.secureapi.dto.PostCursor;
 import com.example.secureapi.dto.PostDto;
+import com.example.secureapi.dto.PostIngestResult;
 import com.example.secureapi.entity.Post;
 import com.example.secureapi.entity.User;
 import com.example.secureapi.repository.PostRepository;
 import com.example.secureapi.repository.UserRepository;
+import com.example.secureapi.service.AuthorTimelineIndex;
+import com.example.secureapi.service.PostFeedCache;
+import com.example.secureapi.service.PostIngestService;
+import com.example.secureapi.service.PostSearchIndex;
+import com.example.secureapi.service.PostWriteQueue;
+import com.example.secureapi.service.PostsCreatedEvent;
+import com.example.secureapi.service.UserDetailsServiceImpl;
+import com.example.secureapi.tracing.RequestTrace;
+import com.example.secureapi.web.PostEventBroadcaster;
+import com.example.secureapi.web.StreamingJsonWriter;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api")
 public class ApiController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private PostRepository postRepository;
 
+    @Autowired
+    private StreamingJsonWriter streamingJsonWriter;
+
+    @Autowired
+    private PostFeedCache postFeedCache;
+
+    @Autowired
+    private PostIngestService postIngestService;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private AuthorTimelineIndex authorTimelineIndex;
+
+    @Autowired
+    private PostWriteQueue postWriteQueue;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private PostEventBroadcaster postEventBroadcaster;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @GetMapping("/data")
-    public ResponseEntity<?> getData() {
+    public ResponseEntity<?> getData(@RequestParam(defaultValue = "" + MAX_PAGE_SIZE) int limit) {
         // Get current authenticated user
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
@@ -34,56 +93,286 @@ public class ApiController {
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Return user data and list of all users (sanitized)
-        List<User> users = userRepository.findAll();
-        List<String> usernames = users.stream()
-                .map(User::getUsername)
-                .collect(Collectors.toList());
+        // Return user data and the first page of the user directory (sanitized); the rest is under /api/users
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<String> usernames = userRepository.findUsernamesByPrefix("", null, Limit.of(pageSize));
 
-        return ResponseEntity.ok(new DataResponse(currentUser.getName(), usernames));
+        return withUsernameCursor(ResponseEntity.ok(), usernames, pageSize)
+                .body(new DataResponse(currentUser.getName(), usernames));
+    }
+
+    @GetMapping("/users")
+    public ResponseEntity<?> getUsers(@RequestParam(defaultValue = "") String prefix,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        String after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                after = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(new AuthController.ErrorResponse("Invalid cursor", "Invalid cursor"));
+            }
+        }
+
+        List<String> usernames = userRepository.findUsernamesByPrefix(prefix, after, Limit.of(pageSize));
+        return withUsernameCursor(ResponseEntity.ok(), usernames, pageSize).body(usernames);
+    }
+
+    @GetMapping("/users/{username}/posts")
+    public ResponseEntity<?> getUserPosts(@PathVariable String username,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        PostCursor after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                after = PostCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(new AuthController.ErrorResponse("Invalid cursor", e.getMessage()));
+            }
+        }
+
+        AuthorTimelineIndex.AuthorPage page = authorTimelineIndex.page(username, after, pageSize);
+        if (page == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new AuthController.ErrorResponse("User not found", "No user named " + username));
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNext() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNext().encode());
+        }
+        return response.body(page.getPosts());
+    }
+
+    private static ResponseEntity.BodyBuilder withUsernameCursor(ResponseEntity.BodyBuilder response,
+                                                                 List<String> usernames, int pageSize) {
+        // Usernames are unique, so the last one on a full page is the whole keyset cursor
+        if (usernames.size() == pageSize) {
+            String last = usernames.get(usernames.size() - 1);
+            response.header(NEXT_CURSOR_HEADER,
+                    Base64.getUrlEncoder().withoutPadding().encodeToString(last.getBytes(StandardCharsets.UTF_8)));
+        }
+        return response;
     }
 
     @GetMapping("/posts")
-    public ResponseEntity<?> getPosts() {
-        List<Post> posts = postRepository.findAllByOrderByCreatedAtDesc();
+    public ResponseEntity<?> getPosts(@RequestParam(required = false) String cursor,
+                                      @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        if (cursor == null || cursor.isEmpty()) {
+            return newestPosts(pageSize);
+        }
+
+        PostCursor after;
+        try {
+            after = PostCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new AuthController.ErrorResponse("Invalid cursor", e.getMessage()));
+        }
+        List<PostDto> posts = postRepository.findFeedPageAfter(after.getCreatedAt(), after.getId(), Limit.of(pageSize));
+
+        // A full page may have a successor; the body stays a plain array and the cursor goes in a header
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (posts.size() == pageSize) {
+            PostDto last = posts.get(posts.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new PostCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        return response.body(posts);
+    }
+
+    private ResponseEntity<byte[]> newestPosts(int pageSize) {
+        PostFeedCache.FeedPage page = postFeedCache.firstPage(pageSize);
+
+        // With the ETag set, Spring answers a matching If-None-Match with 304 and no body;
+        // no-cache lets clients keep the page but makes them revalidate every time
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(page.getETag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.AGE, Long.toString(page.getAge().toSeconds()));
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBody());
+    }
+
+    @GetMapping(value = "/posts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPosts(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        // EventSource sends Last-Event-ID by itself when it reconnects
+        try {
+            return ResponseEntity.ok(postEventBroadcaster.subscribe(lastEventId));
+        } catch (RejectedExecutionException e) {
+            // No body: the response can only be an event stream
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(postEventBroadcaster.getRetryAfterSeconds()))
+                    .build();
+        }
+    }
+
+    @GetMapping("/posts/search")
+    public ResponseEntity<?> searchPosts(@RequestParam String q,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (!postSearchIndex.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new AuthController.ErrorResponse("Search unavailable", "Post search is disabled"));
+        }
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest().body(new AuthController.ErrorResponse("Invalid query", "Query is required"));
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // Ranked results have no keyset, so the cursor is the rank to continue from
+        int offset = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                offset = Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                offset = -1;
+            }
+            if (offset < 0) {
+                return ResponseEntity.badRequest().body(new AuthController.ErrorResponse("Invalid cursor", "Invalid cursor"));
+            }
+        }
+
+        PostSearchIndex.Hits hits = postSearchIndex.search(q, offset, pageSize);
+        Map<Long, PostDto> found = new HashMap<>();
+        if (!hits.getPostIds().isEmpty()) {
+            for (PostDto post : postRepository.findFeedByIds(hits.getPostIds())) {
+                found.put(post.getId(), post);
+            }
+        }
+        // Back in rank order; a post deleted outside the application since the index was built is left out
+        List<PostDto> posts = new ArrayList<>(hits.getPostIds().size());
+        for (Long id : hits.getPostIds()) {
+            PostDto post = found.get(id);
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (hits.hasMore()) {
+            String next = Integer.toString(offset + hits.getPostIds().size());
+            response.header(NEXT_CURSOR_HEADER,
+                    Base64.getUrlEncoder().withoutPadding().encodeToString(next.getBytes(StandardCharsets.UTF_8)));
+        }
+        return response.body(posts);
+    }
 
-        List<PostDto> postDtos = posts.stream()
-                .map(post -> new PostDto(
-                        post.getId(),
-                        post.getTitle(),
-                        post.getContent(),
-                        post.getAuthor().getName(),
-                        post.getCreatedAt(),
-                        post.getUpdatedAt()
-                ))
-                .collect(Collectors.toList());
+    @GetMapping(value = "/posts/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPosts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(streamingJsonWriter.jsonArray(postRepository::streamFeed));
+    }
 
-        return ResponseEntity.ok(postDtos);
+    @GetMapping(value = "/posts/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPostsNdjson() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(streamingJsonWriter.ndjson(postRepository::streamFeed));
     }
 
     @PostMapping("/posts")
-    public ResponseEntity<?> createPost(@Valid @RequestBody PostDto postDto) {
+    public CompletableFuture<ResponseEntity<?>> createPost(@Valid @RequestBody PostDto postDto) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
 
-        User author = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // The authentication filter has just loaded this user, so the author comes from the user cache
+        User author = userDetailsService.findAuthor(username);
+        if (author == null) {
+            throw new RuntimeException("User not found");
+        }
+
+        if (postWriteQueue.isAsync()) {
+            return createPostGrouped(postDto, author);
+        }
 
         Post post = new Post(postDto.getTitle(), postDto.getContent(), author);
         Post savedPost = postRepository.save(post);
 
+        int span = RequestTrace.begin(RequestTrace.DTO_MAPPING);
         PostDto responseDto = new PostDto(
                 savedPost.getId(),
                 savedPost.getTitle(),
                 savedPost.getContent(),
-                savedPost.getAuthor().getName(),
+                author.getName(),
                 savedPost.getCreatedAt(),
                 savedPost.getUpdatedAt()
         );
+        RequestTrace.end(span);
+        eventPublisher.publishEvent(new PostsCreatedEvent(username, List.of(responseDto)));
 
-        return ResponseEntity.ok(responseDto);
+        return CompletableFuture.completedFuture(ResponseEntity.ok(responseDto));
     }
 
+    private CompletableFuture<ResponseEntity<?>> createPostGrouped(PostDto postDto, User author) {
+        CompletableFuture<PostDto> stored;
+        try {
+            stored = postWriteQueue.submit(postDto, author);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(postWriteQueue.getRetryAfterSeconds()))
+                    .body(new AuthController.ErrorResponse("Service busy", "Too many posts waiting to be written")));
+        }
+        if (!postWriteQueue.waitsForCommit()) {
+            // The id is assigned by the insert, so an accepted post is acknowledged without one
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new PostAcceptedResponse("Post accepted for writing", postDto.getTitle())));
+        }
+        // The servlet thread is released while the post waits for its group to commit
+        return stored.thenApply(ResponseEntity::<PostDto>ok);
+    }
+
+    // The body is read item by item, so the import size is not limited by memory
+    @PostMapping(value = "/posts/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createPosts(InputStream body) throws IOException {
+        PostIngestResult result = postIngestService.ingestArray(body, currentAuthor());
+        // Posts before the syntax error are stored, but the import did not reach the end of the input
+        return result.isTruncated() ? ResponseEntity.badRequest().body(result) : ResponseEntity.ok(result);
+    }
+
+    @PostMapping(value = "/posts/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> createPostsNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(postIngestService.ingestLines(body, currentAuthor()));
+    }
+
+    private User currentAuthor() {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    public static class PostAcceptedResponse {
+        private String message;
+        private String title;
+
+        public PostAcceptedResponse(String message, String title) {
+            this.message = message;
+            this.title = title;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+    }
 
     // Inner class for data response
     public static class DataResponse {
@@ -3,18 +3,29 @@ package com.example.secureapi.controller;
 import com.example.secureapi.dto.AuthRequest;
 import com.example.secureapi.dto.AuthResponse;
 import com.example.secureapi.entity.User;
+import com.example.secureapi.security.AuthMetrics;
 import com.example.secureapi.security.JwtUtil;
+import com.example.secureapi.security.LoginThrottle;
+import com.example.secureapi.security.PasswordHashingExecutor;
+import com.example.secureapi.security.TokenVersionRegistry;
+import com.example.secureapi.service.AccountDetails;
 import com.example.secureapi.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
@@ -28,8 +39,49 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody AuthRequest authRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody AuthRequest authRequest, HttpServletRequest request) {
+        String clientIp = request.getRemoteAddr();
+        long retryAfter = loginThrottle.retryAfterSeconds(authRequest.getUsername(), clientIp);
+        if (retryAfter > 0) {
+            authMetrics.authRejected("login", "throttled");
+            return CompletableFuture.completedFuture(ResponseEntity.status(429)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                    .body(new ErrorResponse("Too many login attempts", "Try again later")));
+        }
+
+        try {
+            // BCrypt runs on the bounded hashing pool; the servlet thread is released while it works
+            long submitted = System.nanoTime();
+            CompletableFuture<ResponseEntity<?>> response = passwordHashingExecutor.submit(() -> {
+                long started = System.nanoTime();
+                authMetrics.hashingQueued("login", started - submitted);
+                ResponseEntity<?> result = authenticate(authRequest, clientIp);
+                authMetrics.hashingDone("login", result.getStatusCode().is2xxSuccessful(), System.nanoTime() - started);
+                return result;
+            });
+            // Counted once accepted: a 503 from a saturated pool is not the client's attempt
+            loginThrottle.recordAttempt(clientIp);
+            return response;
+        } catch (RejectedExecutionException e) {
+            authMetrics.authRejected("login", "busy");
+            return CompletableFuture.completedFuture(serviceBusy());
+        }
+    }
+
+    private ResponseEntity<?> authenticate(AuthRequest authRequest, String clientIp) {
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -37,22 +89,53 @@ public class AuthController {
                             authRequest.getPassword()
                     )
             );
+            loginThrottle.recordSuccess(authRequest.getUsername(), clientIp);
 
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            String token = jwtUtil.generateToken(userDetails);
+            // The principal already carries the account fields: no second user query
+            AccountDetails account = (AccountDetails) authentication.getPrincipal();
 
-            User user = userService.findByUsername(authRequest.getUsername());
+            String token = jwtUtil.generateToken(account, account.getId(), account.getRole());
 
-            AuthResponse response = new AuthResponse(token, user.getUsername(), user.getName());
+            AuthResponse response = new AuthResponse(token, account.getUsername(), account.getName());
             return ResponseEntity.ok(response);
 
         } catch (AuthenticationException e) {
+            loginThrottle.recordFailure(authRequest.getUsername(), clientIp);
             return ResponseEntity.status(401).body(new ErrorResponse("Authentication failed", "Invalid username or password"));
         }
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return ResponseEntity.status(401).body(new ErrorResponse("Logout failed", "Authentication is required"));
+        }
+
+        // Invalidates every token issued to this user so far
+        tokenVersionRegistry.revokeTokens(authentication.getName());
+        return ResponseEntity.ok(new RegisterResponse("User logged out successfully", authentication.getName()));
+    }
+
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody User user) {
+        try {
+            long submitted = System.nanoTime();
+            return passwordHashingExecutor.submit(() -> {
+                long started = System.nanoTime();
+                authMetrics.hashingQueued("register", started - submitted);
+                ResponseEntity<?> response = registerUser(user);
+                authMetrics.hashingDone("register", response.getStatusCode().is2xxSuccessful(), System.nanoTime() - started);
+                return response;
+            });
+        } catch (RejectedExecutionException e) {
+            authMetrics.authRejected("register", "busy");
+            return CompletableFuture.completedFuture(serviceBusy());
+        }
+    }
+
+    private ResponseEntity<?> registerUser(User user) {
         try {
             User registeredUser = userService.registerUser(user.getUsername(), user.getPassword(), user.getName());
             return ResponseEntity.ok(new RegisterResponse("User registered successfully", registeredUser.getUsername()));
@@ -62,6 +145,12 @@ public class AuthController {
         }
     }
 
+    private ResponseEntity<?> serviceBusy() {
+        return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingExecutor.getRetryAfterSeconds()))
+                .body(new ErrorResponse("Service busy", "Too many concurrent authentication requests"));
+    }
+
     // Response classes for structured JSON responses
     public static class RegisterResponse {
         private String message;
@@ -0,0 +1,80 @@
+package com.example.secureapi.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of a bulk post import; failures hold at most MAX_REPORTED_FAILURES entries,
+ * failed counts all of them. truncated means the input could not be read to its end.
+ */
+public class PostIngestResult {
+
+    // Keeps the report bounded when a large import is rejected item by item
+    public static final int MAX_REPORTED_FAILURES = 1000;
+
+    private int received;
+    private int created;
+    private int failed;
+    private boolean truncated;
+    private final List<ItemFailure> failures = new ArrayList<>();
+
+    public void addFailure(int index, String message) {
+        failed++;
+        if (failures.size() < MAX_REPORTED_FAILURES) {
+            failures.add(new ItemFailure(index, message));
+        }
+    }
+
+    public void addCreated(int count) {
+        created += count;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    public List<ItemFailure> getFailures() {
+        return List.copyOf(failures);
+    }
+
+    /**
+     * A rejected item and its zero-based position in the input.
+     */
+    public static class ItemFailure {
+        private final int index;
+        private final String message;
+
+        public ItemFailure(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
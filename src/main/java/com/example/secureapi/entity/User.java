@@ -5,7 +5,10 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        // Backed by a sorted index, used for lookups and the paginated user directory
+        @UniqueConstraint(name = "uk_users_username", columnNames = "username")
+})
 public class User {
 
     @Id
@@ -14,7 +17,7 @@ public class User {
 
     @NotBlank
     @Size(min = 3, max = 50)
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String username;
 
     @NotBlank
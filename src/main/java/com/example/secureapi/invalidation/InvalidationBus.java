@@ -0,0 +1,25 @@
+package com.example.secureapi.invalidation;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Carries cache invalidations between the nodes of a deployment. Every node receives every
+ * message, its own included; a bus only moves messages, the InvalidationRelay applies them.
+ */
+public interface InvalidationBus {
+
+    /**
+     * Starts delivering messages to the listener; called once.
+     */
+    void start(Consumer<InvalidationMessage> listener);
+
+    /**
+     * Sends the message, waiting up to wait for room while the bus is backed up.
+     *
+     * @return false when the message had to be dropped
+     */
+    boolean publish(InvalidationMessage message, Duration wait);
+
+    void close();
+}
@@ -0,0 +1,113 @@
+package com.example.secureapi.invalidation;
+
+import com.example.secureapi.security.TokenVersionRegistry;
+
+import java.util.Map;
+
+/**
+ * One message on the invalidation bus, sent as JSON by the broker-backed bus.
+ */
+public class InvalidationMessage {
+
+    public enum Type {
+        /** The user's token version was raised to version. */
+        TOKENS_REVOKED,
+        /** The user was created or modified; cached copies must be dropped. */
+        USER_CHANGED,
+        /** Sent by a node that may have missed messages, with a new requestId; one other node answers. */
+        RESYNC,
+        /** Part of the answer to the RESYNC requestId: revocations by username; the last part has last set. */
+        REVOCATIONS,
+        /** Sent by every node at a fixed rate, so a node can tell a quiet bus from a broken one. */
+        HEARTBEAT
+    }
+
+    private Type type;
+    private String username;
+    private long version;
+    private String origin;
+    private long sentAt;
+    private String requestId;
+    private Map<String, TokenVersionRegistry.Revocation> revocations;
+    private boolean last;
+
+    public InvalidationMessage() {}
+
+    public InvalidationMessage(Type type, String username, long version, String origin, long sentAt) {
+        this.type = type;
+        this.username = username;
+        this.version = version;
+        this.origin = origin;
+        this.sentAt = sentAt;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Id of the node that sent the message.
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    /**
+     * Wall-clock time of sending in epoch milliseconds, for the propagation lag.
+     */
+    public long getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(long sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public void setRequestId(String requestId) {
+        this.requestId = requestId;
+    }
+
+    public Map<String, TokenVersionRegistry.Revocation> getRevocations() {
+        return revocations;
+    }
+
+    public void setRevocations(Map<String, TokenVersionRegistry.Revocation> revocations) {
+        this.revocations = revocations;
+    }
+
+    public boolean isLast() {
+        return last;
+    }
+
+    public void setLast(boolean last) {
+        this.last = last;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.secureapi.invalidation;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traffic, propagation lag and health of the invalidation bus, read from the counters the relay keeps.
+ */
+@Component
+public class InvalidationMetrics implements MeterBinder {
+
+    private final InvalidationRelay invalidationRelay;
+
+    public InvalidationMetrics(InvalidationRelay invalidationRelay) {
+        this.invalidationRelay = invalidationRelay;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindLag(registry, "self", invalidationRelay.ownLag(),
+                "Round trip of this node's own messages through the invalidation bus");
+        bindLag(registry, "other", invalidationRelay.otherLag(),
+                "Delay of invalidation messages from other nodes, clock skew included");
+        FunctionCounter.builder("invalidation.published", invalidationRelay, InvalidationRelay::publishedCount)
+                .description("Invalidation messages and heartbeats handed to the bus")
+                .register(registry);
+        FunctionCounter.builder("invalidation.dropped", invalidationRelay, InvalidationRelay::droppedCount)
+                .description("Invalidation messages and heartbeats the bus queue had no room for in time")
+                .register(registry);
+        FunctionCounter.builder("invalidation.applied", invalidationRelay, InvalidationRelay::appliedCount)
+                .description("Revocations, user changes and resync requests received from other nodes")
+                .register(registry);
+        Gauge.builder("invalidation.heartbeat.age", invalidationRelay, InvalidationRelay::heartbeatAgeSeconds)
+                .description("Time since this node's last heartbeat came back through the bus")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("invalidation.stale", invalidationRelay, relay -> relay.isStale() ? 1 : 0)
+                .description("1 while the bus is considered broken and the user cache is bypassed")
+                .register(registry);
+        Gauge.builder("invalidation.synced", invalidationRelay, relay -> relay.isSynced() ? 1 : 0)
+                .description("0 until the revocations asked for at startup arrived or the resync timed out")
+                .register(registry);
+    }
+
+    /**
+     * The lag is recorded as a count and a total, so the meter gives the mean; the last value shows
+     * the current delay between two scrapes.
+     */
+    private static void bindLag(MeterRegistry registry, String source, InvalidationRelay.Lag lag, String description) {
+        FunctionTimer.builder("invalidation.lag", lag, InvalidationRelay.Lag::count,
+                        InvalidationRelay.Lag::totalSeconds, TimeUnit.SECONDS)
+                .description(description)
+                .tag("source", source)
+                .register(registry);
+        Gauge.builder("invalidation.lag.last", lag, InvalidationRelay.Lag::lastSeconds)
+                .description("Lag of the most recent invalidation message")
+                .tag("source", source)
+                .baseUnit("seconds")
+                .register(registry);
+    }
+}
@@ -0,0 +1,381 @@
+package com.example.secureapi.invalidation;
+
+import com.example.secureapi.security.TokenVersionRegistry;
+import com.example.secureapi.security.TokensRevokedEvent;
+import com.example.secureapi.service.UserChangedEvent;
+import com.example.secureapi.service.UserDetailsServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the per-node caches of several instances coherent. Token revocations (TokensRevokedEvent)
+ * and user changes (UserChangedEvent) made on this node are sent on the invalidation bus; the ones
+ * received from other nodes raise the token version in TokenVersionRegistry and are published here
+ * as UserChangedEvents, which drop the user from UserDetailsServiceImpl and the other user caches.
+ * Verified tokens need nothing: VerifiedTokenCache only skips the signature check, and the
+ * revocation check behind it reads TokenVersionRegistry.
+ * <p>
+ * Every node sends a heartbeat each invalidation.heartbeat and times its own heartbeat's round trip
+ * through the bus. When none has come back for max-staleness, messages from other nodes may be
+ * getting lost, so the user cache is bypassed (lookups go to the database) until the bus recovers.
+ * The cache is then emptied, and the node sends its own revocations and asks for the others'.
+ * <p>
+ * A node that just started asks for the revocations too and issues or checks no token until an
+ * answer arrives or invalidation.resync-timeout passes. A resync request is answered by one node
+ * with all its revocations, in REVOCATIONS messages of up to SNAPSHOT_CHUNK users. The nodes that
+ * know their revocations take turns by node id among the nodes heard from within max-staleness,
+ * ANSWER_STEP_MILLIS apart, and a node answers only if no other answer has arrived by its turn.
+ * Revocations are applied by the highest version, so an answer that still comes twice changes nothing.
+ */
+@Component
+public class InvalidationRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationRelay.class);
+    private static final int SNAPSHOT_CHUNK = 500;
+    private static final long ANSWER_STEP_MILLIS = 250;
+    /** How long a revocation or user change waits for room on a backed-up bus before it is dropped. */
+    private static final Duration PUBLISH_WAIT = Duration.ofSeconds(1);
+    /** The same for each part of a resync answer, which is sent on the scheduler thread. */
+    private static final Duration SNAPSHOT_WAIT = Duration.ofSeconds(10);
+
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InvalidationBus bus;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final long maxStalenessMillis;
+    private final Lag ownLag = new Lag();
+    private final Lag otherLag = new Lag();
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentMap<String, Long> peersLastSeen = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ScheduledFuture<?>> pendingAnswers = new ConcurrentHashMap<>();
+    // A request can reach this node after another node has already answered it
+    private final Cache<String, Boolean> answeredRequests = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+    private final String startupRequestId = UUID.randomUUID().toString();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private volatile long lastRoundTripMillis = System.currentTimeMillis();
+    private volatile boolean stale;
+    private volatile boolean closed;
+
+    public InvalidationRelay(TokenVersionRegistry tokenVersionRegistry,
+                             UserDetailsServiceImpl userDetailsService,
+                             ApplicationEventPublisher eventPublisher,
+                             ObjectMapper objectMapper,
+                             ObjectProvider<RedisConnectionFactory> redisConnectionFactory,
+                             @Value("${invalidation.bus:local}") String bus,
+                             @Value("${invalidation.channel:secure-api-invalidation}") String channel,
+                             @Value("${invalidation.heartbeat:1s}") Duration heartbeatInterval,
+                             @Value("${invalidation.max-staleness:5s}") Duration maxStaleness,
+                             @Value("${invalidation.queue-capacity:1024}") int queueCapacity,
+                             @Value("${invalidation.resync-timeout:2s}") Duration resyncTimeout) {
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.userDetailsService = userDetailsService;
+        this.eventPublisher = eventPublisher;
+        this.maxStalenessMillis = maxStaleness.toMillis();
+        this.bus = switch (bus) {
+            case "local" -> new LocalInvalidationBus(channel);
+            // Configured by Spring Boot from spring.data.redis.*
+            case "redis" -> new RedisInvalidationBus(redisConnectionFactory.getObject(), objectMapper, channel, queueCapacity);
+            default -> throw new IllegalArgumentException("invalidation.bus must be local or redis: " + bus);
+        };
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invalidation-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.bus.start(this::onMessage);
+        // Revocations made before this node started are only known to the others
+        tokenVersionRegistry.syncStarted(resyncTimeout);
+        requestResync(startupRequestId);
+        scheduler.schedule(() -> resyncTimedOut(resyncTimeout), resyncTimeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        long intervalMillis = Math.max(1, heartbeatInterval.toMillis());
+        scheduler.scheduleAtFixedRate(this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onTokensRevoked(TokensRevokedEvent event) {
+        send(message(InvalidationMessage.Type.TOKENS_REVOKED, event.getUsername(), event.getVersion()), PUBLISH_WAIT);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        // A change received from another node is not sent back out
+        if (!event.isFromOtherNode()) {
+            send(message(InvalidationMessage.Type.USER_CHANGED, event.getUsername(), 0), PUBLISH_WAIT);
+        }
+    }
+
+    /**
+     * Id of this node on the bus, new on every start.
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * False until the first resync after startup is answered or times out.
+     */
+    public boolean isSynced() {
+        return tokenVersionRegistry.isSynced();
+    }
+
+    /**
+     * Time since this node's last heartbeat came back through the bus.
+     */
+    public double heartbeatAgeSeconds() {
+        return (System.currentTimeMillis() - lastRoundTripMillis) / 1000.0;
+    }
+
+    /**
+     * Round trips of this node's own messages through the bus.
+     */
+    public Lag ownLag() {
+        return ownLag;
+    }
+
+    /**
+     * Delays of the messages from other nodes; they include clock skew between the hosts.
+     */
+    public Lag otherLag() {
+        return otherLag;
+    }
+
+    public long publishedCount() {
+        return published.get();
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    public long appliedCount() {
+        return applied.get();
+    }
+
+    /**
+     * On the close event rather than at bean destruction: the Redis connection factory is a lifecycle
+     * bean and is stopped before any bean is destroyed.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        bus.close();
+    }
+
+    private InvalidationMessage message(InvalidationMessage.Type type, String username, long version) {
+        return new InvalidationMessage(type, username, version, nodeId, System.currentTimeMillis());
+    }
+
+    private boolean send(InvalidationMessage message, Duration wait) {
+        if (bus.publish(message, wait)) {
+            published.incrementAndGet();
+            return true;
+        }
+        dropped.incrementAndGet();
+        // A lost heartbeat is what marks the bus stale; anything else is lost to the other nodes
+        if (message.getType() != InvalidationMessage.Type.HEARTBEAT && !closed) {
+            log.error("Invalidation bus did not take a {} message for {} within {}; the other nodes catch up "
+                    + "only when the bus recovers", message.getType(),
+                    message.getUsername() == null ? "all users" : message.getUsername(), wait);
+        }
+        return false;
+    }
+
+    private void requestResync(String requestId) {
+        InvalidationMessage request = message(InvalidationMessage.Type.RESYNC, null, 0);
+        request.setRequestId(requestId);
+        send(request, PUBLISH_WAIT);
+    }
+
+    /**
+     * Sends every revocation this node knows, as the answer to a resync request or unasked (requestId
+     * null). Each part waits for room on the bus; a part that still does not fit ends the answer.
+     */
+    private void sendRevocations(String requestId) {
+        List<Map.Entry<String, TokenVersionRegistry.Revocation>> entries =
+                new ArrayList<>(tokenVersionRegistry.revocations().entrySet());
+        int from = 0;
+        do {
+            int to = Math.min(entries.size(), from + SNAPSHOT_CHUNK);
+            Map<String, TokenVersionRegistry.Revocation> chunk = new HashMap<>();
+            for (Map.Entry<String, TokenVersionRegistry.Revocation> entry : entries.subList(from, to)) {
+                chunk.put(entry.getKey(), entry.getValue());
+            }
+            InvalidationMessage message = message(InvalidationMessage.Type.REVOCATIONS, null, 0);
+            message.setRequestId(requestId);
+            message.setRevocations(chunk);
+            message.setLast(to == entries.size());
+            if (!send(message, SNAPSHOT_WAIT)) {
+                return;
+            }
+            from = to;
+        } while (from < entries.size());
+    }
+
+    private void answerResync(String requestId) {
+        // Removed by an answer from another node that came first
+        if (pendingAnswers.remove(requestId) != null && answeredRequests.getIfPresent(requestId) == null) {
+            sendRevocations(requestId);
+        }
+    }
+
+    private void resyncTimedOut(Duration resyncTimeout) {
+        if (!tokenVersionRegistry.isSynced()) {
+            tokenVersionRegistry.syncFinished();
+            log.info("No node answered the revocation resync within {}; issuing tokens with the revocations known so far",
+                    resyncTimeout);
+        }
+    }
+
+    private void onMessage(InvalidationMessage message) {
+        long now = System.currentTimeMillis();
+        boolean own = nodeId.equals(message.getOrigin());
+        // The other nodes' lag includes clock skew between the hosts; the own round trip does not
+        (own ? ownLag : otherLag).record(Math.max(0, now - message.getSentAt()));
+        if (own) {
+            if (message.getType() == InvalidationMessage.Type.HEARTBEAT) {
+                lastRoundTripMillis = now;
+                if (stale) {
+                    recover();
+                }
+            }
+            return;
+        }
+        peersLastSeen.put(message.getOrigin(), now);
+
+        switch (message.getType()) {
+            case TOKENS_REVOKED -> tokenVersionRegistry.applyRevocation(message.getUsername(), message.getVersion(),
+                    message.getSentAt());
+            case USER_CHANGED -> eventPublisher.publishEvent(new UserChangedEvent(message.getUsername(), true));
+            case RESYNC -> {
+                // A node still waiting for its own resync would answer with revocations missing
+                if (tokenVersionRegistry.isSynced() && message.getRequestId() != null && !closed
+                        && answeredRequests.getIfPresent(message.getRequestId()) == null) {
+                    long delay = answerTurn(message.getOrigin(), now) * ANSWER_STEP_MILLIS;
+                    pendingAnswers.computeIfAbsent(message.getRequestId(), requestId ->
+                            scheduler.schedule(() -> answerResync(requestId), delay, TimeUnit.MILLISECONDS));
+                }
+            }
+            case REVOCATIONS -> onRevocations(message);
+            case HEARTBEAT -> {
+                return;
+            }
+        }
+        applied.incrementAndGet();
+    }
+
+    /**
+     * How many of the nodes heard from within max-staleness, the requester aside, come before this one.
+     */
+    private long answerTurn(String requester, long now) {
+        peersLastSeen.values().removeIf(seen -> now - seen > maxStalenessMillis);
+        return peersLastSeen.keySet().stream()
+                .filter(peer -> !peer.equals(requester) && peer.compareTo(nodeId) < 0)
+                .count();
+    }
+
+    private void onRevocations(InvalidationMessage message) {
+        String requestId = message.getRequestId();
+        if (requestId != null) {
+            answeredRequests.put(requestId, Boolean.TRUE);
+            ScheduledFuture<?> ownAnswer = pendingAnswers.remove(requestId);
+            if (ownAnswer != null) {
+                ownAnswer.cancel(false);
+            }
+        }
+        if (message.getRevocations() != null) {
+            message.getRevocations().forEach((username, revocation) ->
+                    tokenVersionRegistry.applyRevocation(username, revocation.version(), revocation.revokedAt()));
+        }
+        if (message.isLast() && startupRequestId.equals(requestId) && !tokenVersionRegistry.isSynced()) {
+            tokenVersionRegistry.syncFinished();
+            log.info("Revocations received from node {}", message.getOrigin());
+        }
+    }
+
+    private void tick() {
+        send(message(InvalidationMessage.Type.HEARTBEAT, null, 0), Duration.ZERO);
+        long silentMillis = System.currentTimeMillis() - lastRoundTripMillis;
+        if (!stale && silentMillis > maxStalenessMillis) {
+            stale = true;
+            userDetailsService.setCacheBypassed(true);
+            log.warn("No heartbeat back from the invalidation bus for {} ms; reading users from the database until it recovers",
+                    silentMillis);
+        }
+    }
+
+    private void recover() {
+        stale = false;
+        // User changes sent meanwhile were lost to this node: start from an empty cache
+        userDetailsService.evictAll();
+        userDetailsService.setCacheBypassed(false);
+        // Revocations made here meanwhile were lost to the others in the same way
+        scheduler.execute(() -> {
+            sendRevocations(null);
+            requestResync(UUID.randomUUID().toString());
+        });
+        log.info("Invalidation bus recovered; user cache emptied and revocations exchanged again");
+    }
+
+    /**
+     * Time from sending a message to receiving it: how many, their total and the most recent one.
+     */
+    public static class Lag {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private volatile long lastMillis;
+
+        void record(long millis) {
+            count.incrementAndGet();
+            totalMillis.addAndGet(millis);
+            lastMillis = millis;
+        }
+
+        public long count() {
+            return count.get();
+        }
+
+        public double totalSeconds() {
+            return totalMillis.get() / 1000.0;
+        }
+
+        public double lastSeconds() {
+            return lastMillis / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.secureapi.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Delivers each message on the publishing thread to every bus of the same channel in this JVM.
+ * For a single node this is a loopback; application contexts sharing a JVM (as in
+ * InvalidationBusCheck) stay coherent as if they were separate nodes.
+ */
+public class LocalInvalidationBus implements InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalInvalidationBus.class);
+    private static final ConcurrentMap<String, Set<Consumer<InvalidationMessage>>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+    private Consumer<InvalidationMessage> listener;
+
+    public LocalInvalidationBus(String channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void start(Consumer<InvalidationMessage> listener) {
+        this.listener = listener;
+        CHANNELS.computeIfAbsent(channel, name -> ConcurrentHashMap.newKeySet()).add(listener);
+    }
+
+    @Override
+    public boolean publish(InvalidationMessage message, Duration wait) {
+        for (Consumer<InvalidationMessage> subscriber : CHANNELS.getOrDefault(channel, Set.of())) {
+            try {
+                subscriber.accept(message);
+            } catch (RuntimeException e) {
+                // One failing subscriber must not keep the message from the others
+                log.warn("Invalidation listener failed on {}: {}", message.getType(), e.toString());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        Set<Consumer<InvalidationMessage>> subscribers = CHANNELS.get(channel);
+        if (subscribers != null && listener != null) {
+            subscribers.remove(listener);
+        }
+    }
+}
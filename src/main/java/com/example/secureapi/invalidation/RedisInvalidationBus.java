@@ -0,0 +1,190 @@
+package com.example.secureapi.invalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Sends messages through a Redis pub/sub channel, on the connection factory Spring Boot configures
+ * from spring.data.redis.* (host, port, username, password, database, ssl). A listener container
+ * keeps the subscription and resubscribes after a reconnect; a publisher thread sends from a bounded
+ * queue, several messages per round trip, so a request that revokes tokens waits for Redis only
+ * while the queue is full. Received messages are handed to the relay one at a time and in order.
+ * Pub/sub keeps no history: messages sent while this node was disconnected are lost to it, which
+ * the relay notices by the missing heartbeats.
+ */
+public class RedisInvalidationBus implements InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisInvalidationBus.class);
+    private static final int MAX_BATCH = 64;
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final String channel;
+    private final byte[] channelBytes;
+    private final StringRedisTemplate template;
+    private final RedisMessageListenerContainer container;
+    private final BlockingQueue<InvalidationMessage> outgoing;
+    private final Thread publisherThread;
+    private final ExecutorService listenerThread;
+    private Consumer<InvalidationMessage> listener;
+    private volatile boolean running = true;
+
+    public RedisInvalidationBus(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper,
+                                String channel, int queueCapacity) {
+        this.reader = objectMapper.readerFor(InvalidationMessage.class);
+        this.writer = objectMapper.writerFor(InvalidationMessage.class);
+        this.channel = channel;
+        this.channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+        this.template = new StringRedisTemplate(connectionFactory);
+        this.container = new RedisMessageListenerContainer();
+        this.container.setConnectionFactory(connectionFactory);
+        // Retried at this interval while Redis cannot be reached, instead of the default 5 s
+        this.container.setRecoveryInterval(1000);
+        // The default runs each message on a new thread, so the parts of a resync answer could overtake each other
+        this.listenerThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invalidation-listener");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.container.setTaskExecutor(listenerThread::execute);
+        this.outgoing = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.publisherThread = new Thread(this::publishQueued, "invalidation-publisher");
+        this.publisherThread.setDaemon(true);
+    }
+
+    @Override
+    public void start(Consumer<InvalidationMessage> listener) {
+        this.listener = listener;
+        container.addMessageListener((message, pattern) -> deliver(message), new ChannelTopic(channel));
+        container.afterPropertiesSet();
+        container.start();
+        publisherThread.start();
+    }
+
+    @Override
+    public boolean publish(InvalidationMessage message, Duration wait) {
+        if (!running) {
+            return false;
+        }
+        try {
+            return outgoing.offer(message, wait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        publisherThread.interrupt();
+        try {
+            // A pipeline still in flight would run into the connection factory being stopped
+            publisherThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            container.destroy();
+        } catch (Exception e) {
+            log.warn("Could not stop the invalidation subscription: {}", e.toString());
+        }
+        listenerThread.shutdownNow();
+    }
+
+    private void deliver(Message message) {
+        InvalidationMessage received;
+        try {
+            received = reader.readValue(message.getBody());
+        } catch (IOException e) {
+            log.warn("Ignoring malformed invalidation message: {}", e.toString());
+            return;
+        }
+        try {
+            listener.accept(received);
+        } catch (RuntimeException e) {
+            log.warn("Invalidation listener failed on {}: {}", received.getType(), e.toString());
+        }
+    }
+
+    private void publishQueued() {
+        List<byte[]> batch = new ArrayList<>(MAX_BATCH);
+        boolean failing = false;
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    InvalidationMessage first = outgoing.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    List<InvalidationMessage> taken = new ArrayList<>(MAX_BATCH);
+                    taken.add(first);
+                    outgoing.drainTo(taken, MAX_BATCH - 1);
+                    for (InvalidationMessage message : taken) {
+                        batch.add(serialize(message));
+                    }
+                }
+                // Pipelined: all commands first, then the replies
+                template.executePipelined((RedisCallback<Object>) connection -> {
+                    for (byte[] payload : batch) {
+                        connection.publish(channelBytes, payload);
+                    }
+                    return null;
+                });
+                batch.clear();
+                if (failing) {
+                    log.info("Invalidation bus publishing to {} again", channel);
+                    failing = false;
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (RuntimeException e) {
+                // The batch is kept and sent again; the queue bounds what waits meanwhile
+                if (running && !failing) {
+                    log.warn("Invalidation bus publishing to {} failed: {}", channel, e.toString());
+                    failing = true;
+                }
+                pause();
+            }
+        }
+    }
+
+    private byte[] serialize(InvalidationMessage message) {
+        try {
+            return writer.writeValueAsBytes(message);
+        } catch (JsonProcessingException e) {
+            // Only plain fields: not expected
+            throw new IllegalStateException("Could not serialize an invalidation message", e);
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            running = false;
+        }
+    }
+}
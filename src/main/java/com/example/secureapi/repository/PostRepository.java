@@ -1,16 +1,76 @@
 package com.example.secureapi.repository;
 
+import com.example.secureapi.dto.PostCursor;
+import com.example.secureapi.dto.PostDto;
 import com.example.secureapi.entity.Post;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
-    List<Post> findByAuthorId(Long authorId);
+    // fk() compares the author_id column itself, so idx_posts_author_id serves it without a join to users
+    // (see QueryPlanCheck)
+    @Query("SELECT p FROM Post p WHERE fk(p.author) = :authorId")
+    List<Post> findByAuthorId(@Param("authorId") Long authorId);
 
     @Query("SELECT p FROM Post p LEFT JOIN FETCH p.author ORDER BY p.createdAt DESC")
     List<Post> findAllByOrderByCreatedAtDesc();
+
+    // Keyset pagination over (createdAt, id); served by idx_posts_created_at_id.
+    // Projects straight into PostDto, so no managed Post/User entities (or password hashes) are loaded.
+    // The author is required, so LEFT JOIN returns the same rows; it keeps posts as the driving table,
+    // where with an inner join H2 scans users first and sorts every post (see QueryPlanCheck)
+    @Query("SELECT new com.example.secureapi.dto.PostDto(p.id, p.title, p.content, a.name, p.createdAt, p.updatedAt) " +
+            "FROM Post p LEFT JOIN p.author a ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostDto> findFirstFeedPage(Limit limit);
+
+    // The redundant createdAt <= bound gives the index a start key; the OR alone is a filter over the whole index
+    @Query("SELECT new com.example.secureapi.dto.PostDto(p.id, p.title, p.content, a.name, p.createdAt, p.updatedAt) " +
+            "FROM Post p LEFT JOIN p.author a " +
+            "WHERE p.createdAt <= :createdAt AND (p.createdAt < :createdAt OR p.id < :id) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostDto> findFeedPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    // Keyset page of one author's posts; served by idx_posts_author_created_at_id. The author is joined as
+    // an entity so that fk(p.author) stays the posts column: through p.author a, the filter would be on users.id.
+    // Ordering by the (constant) author first lets H2 read the index in order instead of sorting the author's posts
+    @Query("SELECT new com.example.secureapi.dto.PostDto(p.id, p.title, p.content, a.name, p.createdAt, p.updatedAt) " +
+            "FROM Post p LEFT JOIN User a ON a.id = fk(p.author) " +
+            "WHERE fk(p.author) = :authorId AND p.createdAt <= :createdAt AND (p.createdAt < :createdAt OR p.id < :id) " +
+            "ORDER BY fk(p.author), p.createdAt DESC, p.id DESC")
+    List<PostDto> findAuthorPageAfter(@Param("authorId") Long authorId, @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id, Limit limit);
+
+    /**
+     * The author's newest posts, or those strictly after {@code after}. The first page starts from a cursor
+     * past every post: with the author as the only condition, H2 picks idx_posts_author_id and sorts.
+     */
+    default List<PostDto> findAuthorPage(Long authorId, PostCursor after, Limit limit) {
+        if (after == null) {
+            return findAuthorPageAfter(authorId, LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE, limit);
+        }
+        return findAuthorPageAfter(authorId, after.getCreatedAt(), after.getId(), limit);
+    }
+
+    // Search results by primary key; the caller restores the rank order
+    @Query("SELECT new com.example.secureapi.dto.PostDto(p.id, p.title, p.content, a.name, p.createdAt, p.updatedAt) " +
+            "FROM Post p LEFT JOIN p.author a WHERE p.id IN :ids")
+    List<PostDto> findFeedByIds(@Param("ids") Collection<Long> ids);
+
+    // Whole feed for streaming exports; rows are fetched in chunks and never collected into a List
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.secureapi.dto.PostDto(p.id, p.title, p.content, a.name, p.createdAt, p.updatedAt) " +
+            "FROM Post p LEFT JOIN p.author a ORDER BY p.createdAt DESC, p.id DESC")
+    Stream<PostDto> streamFeed();
 }
@@ -1,13 +1,37 @@
 package com.example.secureapi.repository;
 
 import com.example.secureapi.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
+
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    // Keyset page over the sorted username index; selects only the username column
+    @Query("SELECT u.username FROM User u " +
+            "WHERE u.username LIKE :pattern ESCAPE '\\' AND u.username > :after " +
+            "ORDER BY u.username")
+    List<String> findUsernamePage(@Param("pattern") String pattern, @Param("after") String after, Limit limit);
+
+    /**
+     * Usernames starting with the given prefix, in order, strictly after {@code after}.
+     */
+    default List<String> findUsernamesByPrefix(String prefix, String after, Limit limit) {
+        String escapedPrefix = prefix == null ? "" : prefix
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return findUsernamePage(escapedPrefix + "%", after == null ? "" : after, limit);
+    }
 }
@@ -0,0 +1,148 @@
+package com.example.secureapi.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the authentication hot paths: token verification and principal loading in
+ * JwtAuthenticationFilter, and the hashing-pool work behind login and registration.
+ * Meters on the per-request path are registered once here, so recording is a plain method call:
+ * the fixed tag combinations in the constructor, token failure reasons (exception types) on their
+ * first occurrence, after which they are looked up in a map without touching the registry.
+ */
+@Component
+public class AuthMetrics {
+
+    private static final List<String> OPERATIONS = List.of("login", "register");
+    private static final List<String> REJECT_REASONS = List.of("throttled", "busy");
+
+    private final MeterRegistry registry;
+    private final Timer tokenValid;
+    private final Timer tokenInvalid;
+    private final Timer principalFromClaims;
+    private final Timer principalFromUserDetails;
+    private final Counter tokenRevoked;
+    private final Map<Class<?>, Counter> tokenFailures = new ConcurrentHashMap<>();
+    private final Map<String, Timer> hashingQueueWait = new ConcurrentHashMap<>();
+    private final Map<String, Timer> hashingSuccess = new ConcurrentHashMap<>();
+    private final Map<String, Timer> hashingFailure = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Counter>> rejected = new ConcurrentHashMap<>();
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.tokenValid = verifyTimer(registry, "valid");
+        this.tokenInvalid = verifyTimer(registry, "invalid");
+        this.principalFromClaims = principalTimer(registry, "claims");
+        this.principalFromUserDetails = principalTimer(registry, "user-details");
+        this.tokenRevoked = failureCounter(registry, "revoked");
+        for (String operation : OPERATIONS) {
+            for (String reason : REJECT_REASONS) {
+                rejectedCounter(operation, reason);
+            }
+            queueWaitTimer(operation);
+            taskTimer(operation, true);
+            taskTimer(operation, false);
+        }
+    }
+
+    /**
+     * Signature check or verified-token cache lookup of a token that was accepted.
+     * Cache hits and misses are exported from the cache statistics as jwt.cache.*.
+     */
+    public void tokenVerified(long nanos) {
+        tokenValid.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Token that could not be verified; the reason is the exception type (expired, bad signature, malformed).
+     */
+    public void tokenRejected(long nanos, Exception reason) {
+        tokenInvalid.record(nanos, TimeUnit.NANOSECONDS);
+        tokenFailures.computeIfAbsent(reason.getClass(), type -> failureCounter(registry, type.getSimpleName())).increment();
+    }
+
+    /**
+     * Verified token whose user no longer matches it (logged out or the token version changed).
+     */
+    public void tokenRevoked() {
+        tokenRevoked.increment();
+    }
+
+    public void principalLoaded(long nanos, boolean fromClaims) {
+        (fromClaims ? principalFromClaims : principalFromUserDetails).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time a login or registration waited in the hashing pool queue before a thread picked it up.
+     */
+    public void hashingQueued(String operation, long nanos) {
+        queueWaitTimer(operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time on the hashing thread: the BCrypt check or hash plus the user lookup or insert around it.
+     */
+    public void hashingDone(String operation, boolean success, long nanos) {
+        taskTimer(operation, success).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Login or registration answered without hashing: 429 from the throttle or 503 from a full pool.
+     */
+    public void authRejected(String operation, String reason) {
+        rejectedCounter(operation, reason).increment();
+    }
+
+    // Registered in the constructor for every known operation; the map lookup is all a request pays
+    private Timer queueWaitTimer(String operation) {
+        return hashingQueueWait.computeIfAbsent(operation, key -> Timer.builder("auth.hashing.queue.wait")
+                .description("Time spent waiting for a password hashing thread")
+                .tag("operation", key)
+                .register(registry));
+    }
+
+    private Timer taskTimer(String operation, boolean success) {
+        return (success ? hashingSuccess : hashingFailure).computeIfAbsent(operation, key -> Timer.builder("auth.hashing.task")
+                .description("Password hashing work per login or registration")
+                .tag("operation", key)
+                .tag("outcome", success ? "success" : "failure")
+                .register(registry));
+    }
+
+    private Counter rejectedCounter(String operation, String reason) {
+        return rejected.computeIfAbsent(operation, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(reason, key -> Counter.builder("auth.rejected")
+                        .description("Login and registration requests refused before any password hashing")
+                        .tag("operation", operation)
+                        .tag("reason", key)
+                        .register(registry));
+    }
+
+    private static Timer verifyTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("auth.token.verify")
+                .description("Bearer token verification in JwtAuthenticationFilter")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Timer principalTimer(MeterRegistry registry, String source) {
+        return Timer.builder("auth.principal.load")
+                .description("Building the authenticated principal for a verified token")
+                .tag("source", source)
+                .register(registry);
+    }
+
+    private static Counter failureCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("auth.token.failures")
+                .description("Bearer tokens that did not authenticate the request")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.secureapi.security;
 
+import com.example.secureapi.tracing.RequestTrace;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -22,34 +25,77 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Value("${jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain)
             throws ServletException, IOException {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        VerifiedToken verifiedToken = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            username = jwtUtil.extractUsername(jwt);
+            String jwt = authorizationHeader.substring(7);
+            long start = System.nanoTime();
+            int span = RequestTrace.begin(RequestTrace.JWT_PARSE);
+            try {
+                // Parse and verify once (or reuse an earlier verification); the claims are reused below
+                verifiedToken = verifiedTokenCache.verify(jwt);
+                authMetrics.tokenVerified(System.nanoTime() - start);
+            } catch (JwtException | IllegalArgumentException e) {
+                // Invalid or expired token: continue unauthenticated and let the entry point answer 401
+                authMetrics.tokenRejected(System.nanoTime() - start, e);
+                verifiedToken = null;
+            } finally {
+                RequestTrace.end(span);
+            }
         }
 
+        String username = verifiedToken == null ? null : verifiedToken.getUsername();
+
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            int span = RequestTrace.begin(RequestTrace.USER_LOAD);
+            UserDetails userDetails;
+            try {
+                userDetails = loadPrincipal(verifiedToken);
+            } finally {
+                RequestTrace.end(span);
+            }
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (jwtUtil.validateToken(verifiedToken, userDetails)) {
                 UsernamePasswordAuthenticationToken authenticationToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            } else {
+                authMetrics.tokenRevoked();
             }
         }
 
         chain.doFilter(request, response);
     }
+
+    private UserDetails loadPrincipal(VerifiedToken verifiedToken) {
+        long start = System.nanoTime();
+        // In stateless mode the token already identifies the user; revocation is checked in validateToken
+        if (statelessPrincipal && verifiedToken.hasPrincipalClaims()) {
+            UserDetails principal = new JwtUserPrincipal(verifiedToken.getUserId(), verifiedToken.getUsername(), verifiedToken.getRole());
+            authMetrics.principalLoaded(System.nanoTime() - start, true);
+            return principal;
+        }
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(verifiedToken.getUsername());
+        authMetrics.principalLoaded(System.nanoTime() - start, false);
+        return userDetails;
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.secureapi.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,14 +18,37 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
 
-    @Value("${jwt.expiration}")
-    private long expiration;
+    private final long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    // Key and parser are thread-safe and immutable, so they are built once instead of per call
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") long expiration,
+                   TokenVersionRegistry tokenVersionRegistry) {
+        this.expiration = expiration;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
+    /**
+     * Verifies the signature and expiry of the token and returns its claims.
+     * The result should be reused instead of calling the extract* methods again.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, forged or expired
+     */
+    public VerifiedToken verify(String token) {
+        return new VerifiedToken(token, extractAllClaims(token));
     }
 
     public String extractUsername(String token) {
@@ -41,34 +65,47 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public String generateToken(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        return createToken(claims, userDetails.getUsername());
     }
 
-    public String generateToken(UserDetails userDetails) {
+    /**
+     * Issues a token that also carries the user id, role and current token version,
+     * so the principal can be rebuilt from the claims without a database lookup.
+     */
+    public String generateToken(UserDetails userDetails, Long userId, String role) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, userId);
+        claims.put(ROLE_CLAIM, role);
+        claims.put(TOKEN_VERSION_CLAIM, tokenVersionRegistry.currentVersion(userDetails.getUsername()));
         return createToken(claims, userDetails.getUsername());
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
+                .signWith(signingKey)
                 .compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(verify(token), userDetails);
+    }
+
+    public boolean validateToken(VerifiedToken verifiedToken, UserDetails userDetails) {
+        String username = verifiedToken.getUsername();
+        return username != null && username.equals(userDetails.getUsername())
+                && !verifiedToken.isExpired()
+                && tokenVersionRegistry.isCurrent(username, verifiedToken.getTokenVersion());
     }
 }
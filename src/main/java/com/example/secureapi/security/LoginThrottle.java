@@ -0,0 +1,92 @@
+package com.example.secureapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-window login throttling: evaluated attempts are counted per client IP, failed attempts
+ * per client IP and username. Keying failures on the pair keeps a guessing client from locking
+ * the account out for everyone else; guessing from many addresses is bounded by the per-IP limit
+ * of each.
+ */
+@Component
+public class LoginThrottle {
+
+    private final int maxAttemptsPerIp;
+    private final int maxFailuresPerUsername;
+    private final long windowMillis;
+    private final Cache<String, Window> attemptsByIp;
+    private final Cache<String, Window> failuresByIpAndUsername;
+
+    public LoginThrottle(@Value("${auth.throttle.ip-max-attempts:30}") int maxAttemptsPerIp,
+                         @Value("${auth.throttle.username-max-failures:5}") int maxFailuresPerUsername,
+                         @Value("${auth.throttle.window:1m}") Duration window,
+                         @Value("${auth.throttle.max-tracked-keys:100000}") long maxTrackedKeys) {
+        this.maxAttemptsPerIp = maxAttemptsPerIp;
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.windowMillis = window.toMillis();
+        this.attemptsByIp = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterWrite(window)
+                .build();
+        this.failuresByIpAndUsername = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    /**
+     * Returns how many seconds the client has to wait, or 0 if the attempt may proceed.
+     */
+    public long retryAfterSeconds(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        return Math.max(
+                retryAfterSeconds(attemptsByIp.getIfPresent(clientIp), maxAttemptsPerIp, now),
+                retryAfterSeconds(failuresByIpAndUsername.getIfPresent(failureKey(username, clientIp)), maxFailuresPerUsername, now));
+    }
+
+    /**
+     * Counts an attempt that is evaluated; attempts turned away before the password check are not counted.
+     */
+    public void recordAttempt(String clientIp) {
+        increment(attemptsByIp, clientIp);
+    }
+
+    public void recordFailure(String username, String clientIp) {
+        increment(failuresByIpAndUsername, failureKey(username, clientIp));
+    }
+
+    public void recordSuccess(String username, String clientIp) {
+        failuresByIpAndUsername.invalidate(failureKey(username, clientIp));
+    }
+
+    private static String failureKey(String username, String clientIp) {
+        return clientIp + '\n' + username;
+    }
+
+    private void increment(Cache<String, Window> counters, String key) {
+        counters.get(key, k -> new Window(System.currentTimeMillis())).count.incrementAndGet();
+    }
+
+    private long retryAfterSeconds(Window window, int limit, long now) {
+        if (window == null || window.count.get() < limit) {
+            return 0;
+        }
+        long remainingMillis = window.startMillis + windowMillis - now;
+        return Math.max(1, (remainingMillis + 999) / 1000);
+    }
+
+    private static final class Window {
+        final long startMillis;
+        final AtomicInteger count = new AtomicInteger();
+
+        Window(long startMillis) {
+            this.startMillis = startMillis;
+        }
+    }
+}
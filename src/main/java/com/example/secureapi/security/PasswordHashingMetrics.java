@@ -0,0 +1,29 @@
+package com.example.secureapi.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Load of the password hashing pool; the time spent in it is timed by AuthMetrics.
+ */
+@Component
+public class PasswordHashingMetrics implements MeterBinder {
+
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    public PasswordHashingMetrics(PasswordHashingExecutor passwordHashingExecutor) {
+        this.passwordHashingExecutor = passwordHashingExecutor;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.hashing.active", passwordHashingExecutor, PasswordHashingExecutor::getActiveCount)
+                .description("Password hashing threads currently working")
+                .register(registry);
+        Gauge.builder("auth.hashing.queued", passwordHashingExecutor, PasswordHashingExecutor::getQueueSize)
+                .description("Logins and registrations waiting for a hashing thread")
+                .register(registry);
+    }
+}
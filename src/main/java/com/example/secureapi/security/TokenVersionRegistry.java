@@ -0,0 +1,142 @@
+package com.example.secureapi.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory per-user token version used for revocation without a database lookup.
+ * Tokens carry the version they were issued with; bumping a user's version
+ * rejects every token issued before the bump. Bumps are announced as TokensRevokedEvents, which the
+ * InvalidationRelay sends to the other nodes.
+ * <p>
+ * Once jwt.expiration has passed since a bump, every token issued before it has expired, so the bump
+ * no longer rejects anything and is forgotten.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    /**
+     * Forgotten bumps are kept this much longer than jwt.expiration, so that a node whose clock is a
+     * little ahead does not issue version 0 while another still rejects it.
+     */
+    private static final long PRUNE_MARGIN_MILLIS = 60_000;
+
+    private final ConcurrentMap<String, Revocation> revocations = new ConcurrentHashMap<>();
+    private final ApplicationEventPublisher eventPublisher;
+    private final long expirationMillis;
+    private final AtomicLong nextPruneAt = new AtomicLong();
+    private volatile CountDownLatch sync;
+    private volatile long syncTimeoutMillis;
+
+    public TokenVersionRegistry(ApplicationEventPublisher eventPublisher,
+                                @Value("${jwt.expiration}") long expiration) {
+        this.eventPublisher = eventPublisher;
+        this.expirationMillis = expiration;
+    }
+
+    public long currentVersion(String username) {
+        awaitSync();
+        Revocation revocation = revocations.get(username);
+        return revocation == null ? 0 : revocation.version();
+    }
+
+    public boolean isCurrent(String username, long tokenVersion) {
+        awaitSync();
+        Revocation revocation = revocations.get(username);
+        return revocation == null
+                || tokenVersion >= revocation.version()
+                || revocation.revokedAt() < System.currentTimeMillis() - expirationMillis;
+    }
+
+    /**
+     * Revokes all tokens issued so far to the given user.
+     */
+    public long revokeTokens(String username) {
+        awaitSync();
+        pruneIfDue();
+        long now = System.currentTimeMillis();
+        Revocation revocation = revocations.merge(username, new Revocation(1, now),
+                (current, first) -> new Revocation(current.version() + 1, now));
+        eventPublisher.publishEvent(new TokensRevokedEvent(username, revocation.version()));
+        return revocation.version();
+    }
+
+    /**
+     * Applies a revocation made on another node. Versions only grow, so a repeated or late
+     * message cannot undo a newer revocation.
+     */
+    public void applyRevocation(String username, long version, long revokedAt) {
+        pruneIfDue();
+        revocations.merge(username, new Revocation(version, revokedAt),
+                (current, received) -> received.version() > current.version() ? received : current);
+    }
+
+    /**
+     * Every bump that still rejects tokens, for nodes that may have missed them.
+     */
+    public Map<String, Revocation> revocations() {
+        pruneIfDue();
+        return Map.copyOf(revocations);
+    }
+
+    /**
+     * Holds back issuing and checking tokens until syncFinished, but no longer than the timeout:
+     * until then this node may not know revocations made on the others.
+     */
+    public void syncStarted(Duration timeout) {
+        syncTimeoutMillis = timeout.toMillis();
+        sync = new CountDownLatch(1);
+    }
+
+    public void syncFinished() {
+        CountDownLatch pending = sync;
+        if (pending != null) {
+            pending.countDown();
+        }
+    }
+
+    public boolean isSynced() {
+        CountDownLatch pending = sync;
+        return pending == null || pending.getCount() == 0;
+    }
+
+    private void awaitSync() {
+        CountDownLatch pending = sync;
+        if (pending == null || pending.getCount() == 0) {
+            return;
+        }
+        try {
+            pending.await(syncTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * At most once per PRUNE_MARGIN_MILLIS, on the next revocation or snapshot.
+     */
+    private void pruneIfDue() {
+        long now = System.currentTimeMillis();
+        long due = nextPruneAt.get();
+        if (now < due || !nextPruneAt.compareAndSet(due, now + PRUNE_MARGIN_MILLIS)) {
+            return;
+        }
+        long cutoff = now - expirationMillis - PRUNE_MARGIN_MILLIS;
+        // Removes an entry only if it was not replaced meanwhile
+        revocations.entrySet().removeIf(entry -> entry.getValue().revokedAt() < cutoff);
+    }
+
+    /**
+     * A user's token version and when it was last raised, in epoch milliseconds.
+     */
+    public record Revocation(long version, long revokedAt) {}
+}
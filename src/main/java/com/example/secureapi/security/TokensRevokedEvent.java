@@ -0,0 +1,23 @@
+package com.example.secureapi.security;
+
+/**
+ * Published after a user's token version was bumped on this node, so other nodes can apply the same revocation.
+ */
+public class TokensRevokedEvent {
+
+    private final String username;
+    private final long version;
+
+    public TokensRevokedEvent(String username, long version) {
+        this.username = username;
+        this.version = version;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.secureapi.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Result of a single signature-checked parse of a JWT.
+ * Holds the claims so callers never need to parse the same token again.
+ */
+public final class VerifiedToken {
+
+    private final String token;
+    private final Claims claims;
+
+    VerifiedToken(String token, Claims claims) {
+        this.token = token;
+        this.claims = claims;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getUsername() {
+        return claims.getSubject();
+    }
+
+    public Date getIssuedAt() {
+        return claims.getIssuedAt();
+    }
+
+    public Date getExpiration() {
+        return claims.getExpiration();
+    }
+
+    public long getExpirationMillis() {
+        Date expiration = claims.getExpiration();
+        return expiration == null ? Long.MAX_VALUE : expiration.getTime();
+    }
+
+    public Long getUserId() {
+        return claims.get(JwtUtil.USER_ID_CLAIM, Long.class);
+    }
+
+    public String getRole() {
+        return claims.get(JwtUtil.ROLE_CLAIM, String.class);
+    }
+
+    public long getTokenVersion() {
+        Long version = claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Long.class);
+        return version == null ? 0L : version;
+    }
+
+    /**
+     * True when the token carries enough claims to build the principal without a user lookup.
+     */
+    public boolean hasPrincipalClaims() {
+        return getUserId() != null && getRole() != null;
+    }
+
+    public <T> T getClaim(String name, Class<T> type) {
+        return claims.get(name, type);
+    }
+
+    public boolean isExpired() {
+        return getExpirationMillis() <= System.currentTimeMillis();
+    }
+}
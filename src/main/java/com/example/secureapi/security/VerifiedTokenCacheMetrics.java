@@ -0,0 +1,24 @@
+package com.example.secureapi.security;
+
+import com.example.secureapi.config.CacheMeters;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hit rate and size of the verified token cache, as cache.*{cache="jwt"}.
+ */
+@Component
+public class VerifiedTokenCacheMetrics implements MeterBinder {
+
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    public VerifiedTokenCacheMetrics(VerifiedTokenCache verifiedTokenCache) {
+        this.verifiedTokenCache = verifiedTokenCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CacheMeters.bind(registry, "jwt", verifiedTokenCache, VerifiedTokenCache::stats, VerifiedTokenCache::size);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.secureapi.service;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * UserDetails that also carries the account fields a login response needs (id, name and role),
+ * so issuing a token takes no second user query after authentication.
+ */
+public class AccountDetails extends User {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String name;
+    private final String role;
+
+    public AccountDetails(Long id, String username, String password, String name, String role,
+                          Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+        this.name = name;
+        this.role = role;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getRole() {
+        return role;
+    }
+}
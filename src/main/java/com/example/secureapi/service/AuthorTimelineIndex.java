@@ -0,0 +1,225 @@
+package com.example.secureapi.service;
+
+import com.example.secureapi.dto.PostCursor;
+import com.example.secureapi.dto.PostDto;
+import com.example.secureapi.repository.PostRepository;
+import com.example.secureapi.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Each author's newest posts (up to posts.timeline.size, newest first), kept for the authors whose
+ * pages were read recently. PostsCreatedEvents add to the timelines already loaded, so a page inside
+ * a timeline is answered without a query. Pages past its end, and every page when the index is
+ * disabled, use the keyset query on idx_posts_author_created_at_id. A UserChangedEvent drops the
+ * author's timeline (the posts carry the author's name); the ttl bounds how long posts changed or
+ * deleted outside the application can still be listed.
+ */
+@Service
+public class AuthorTimelineIndex {
+
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final boolean enabled;
+    private final int capacity;
+    private final Cache<String, Timeline> timelines;
+
+    public AuthorTimelineIndex(UserRepository userRepository,
+                               PostRepository postRepository,
+                               @Value("${posts.timeline.enabled:true}") boolean enabled,
+                               @Value("${posts.timeline.size:50}") int size,
+                               @Value("${posts.timeline.max-authors:2000}") long maxAuthors,
+                               @Value("${posts.timeline.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.enabled = enabled;
+        this.capacity = Math.max(1, size);
+        this.timelines = Caffeine.newBuilder()
+                .maximumSize(maxAuthors)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * One page of the author's posts, newest first, strictly after the cursor when one is given;
+     * null when there is no such user.
+     */
+    public AuthorPage page(String username, PostCursor after, int limit) {
+        if (!enabled) {
+            Long authorId = userRepository.findIdByUsername(username).orElse(null);
+            return authorId == null ? null : fromDatabase(authorId, after, limit);
+        }
+
+        // An unknown username loads null, which is not cached
+        Timeline timeline = timelines.get(username, this::load);
+        if (timeline == null) {
+            return null;
+        }
+        AuthorPage page = timeline.page(after, limit);
+        return page != null ? page : fromDatabase(timeline.authorId, after, limit);
+    }
+
+    @EventListener
+    public void onPostsCreated(PostsCreatedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        // Waits for a load of the same author in progress, which may or may not have read these posts
+        timelines.asMap().computeIfPresent(event.getAuthorUsername(), (username, timeline) -> {
+            Timeline updated = timeline;
+            for (PostDto post : event.getPosts()) {
+                updated = updated.with(post);
+            }
+            return updated;
+        });
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        timelines.invalidate(event.getUsername());
+    }
+
+    public long size() {
+        return timelines.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return timelines.stats();
+    }
+
+    private Timeline load(String username) {
+        Long authorId = userRepository.findIdByUsername(username).orElse(null);
+        if (authorId == null) {
+            return null;
+        }
+        List<PostDto> newest = postRepository.findAuthorPage(authorId, null, Limit.of(capacity));
+        return new Timeline(authorId, capacity, newest);
+    }
+
+    private AuthorPage fromDatabase(long authorId, PostCursor after, int limit) {
+        List<PostDto> posts = postRepository.findAuthorPage(authorId, after, Limit.of(limit));
+        // A full page may have a successor, same rule as the feed
+        PostCursor next = null;
+        if (posts.size() == limit) {
+            PostDto last = posts.get(posts.size() - 1);
+            next = new PostCursor(last.getCreatedAt(), last.getId());
+        }
+        return new AuthorPage(posts, next);
+    }
+
+    /**
+     * Posts of one page with the cursor of the next one (null on the last page).
+     */
+    public static class AuthorPage {
+        private final List<PostDto> posts;
+        private final PostCursor next;
+
+        AuthorPage(List<PostDto> posts, PostCursor next) {
+            this.posts = posts;
+            this.next = next;
+        }
+
+        public List<PostDto> getPosts() {
+            return posts;
+        }
+
+        public PostCursor getNext() {
+            return next;
+        }
+    }
+
+    /**
+     * The newest posts of one author in feed order (createdAt, then id, descending). When it is full,
+     * a new post pushes out the oldest one, and from then on the posts older than the last one kept
+     * are only in the database. Posts arrive in commit order, which can differ slightly from
+     * createdAt order, so each one is inserted at its place.
+     * <p>
+     * Immutable: adding a post builds a new timeline, which replaces this one in the cache (adds of
+     * one author are serialized by computeIfPresent), so pages are read without any lock.
+     */
+    private static final class Timeline {
+        private final long authorId;
+        private final int capacity;
+        private final PostDto[] posts;
+        // Whether these are all of the author's posts, so nothing is past the end
+        private final boolean complete;
+
+        Timeline(long authorId, int capacity, List<PostDto> newest) {
+            this(authorId, capacity, newest.toArray(new PostDto[0]), newest.size() < capacity);
+        }
+
+        private Timeline(long authorId, int capacity, PostDto[] posts, boolean complete) {
+            this.authorId = authorId;
+            this.capacity = capacity;
+            this.posts = posts;
+            this.complete = complete;
+        }
+
+        /**
+         * This timeline with the post inserted at its place; this one itself when the post is
+         * already here or falls past the end of a full timeline.
+         */
+        Timeline with(PostDto post) {
+            int size = posts.length;
+            int position = 0;
+            while (position < size && !isOlder(posts[position], post.getCreatedAt(), post.getId())) {
+                if (posts[position].getId().equals(post.getId())) {
+                    return this;
+                }
+                position++;
+            }
+            boolean full = size == capacity;
+            if (full && position == size) {
+                return complete ? new Timeline(authorId, capacity, posts, false) : this;
+            }
+            int kept = full ? size - 1 : size;
+            PostDto[] updated = new PostDto[kept + 1];
+            System.arraycopy(posts, 0, updated, 0, position);
+            updated[position] = post;
+            System.arraycopy(posts, position, updated, position + 1, kept - position);
+            return new Timeline(authorId, capacity, updated, complete && !full);
+        }
+
+        /**
+         * The page, or null when it reaches past the posts kept here.
+         */
+        AuthorPage page(PostCursor after, int limit) {
+            int size = posts.length;
+            int start = 0;
+            if (after != null) {
+                while (start < size && !isOlder(posts[start], after.getCreatedAt(), after.getId())) {
+                    start++;
+                }
+            }
+            int available = size - start;
+            if (available < limit && !complete) {
+                return null;
+            }
+
+            List<PostDto> page = List.of(Arrays.copyOfRange(posts, start, start + Math.min(available, limit)));
+            PostCursor next = null;
+            if (page.size() == limit) {
+                PostDto last = page.get(page.size() - 1);
+                next = new PostCursor(last.getCreatedAt(), last.getId());
+            }
+            return new AuthorPage(page, next);
+        }
+
+        // Whether the post comes after (is older than) the given position in feed order
+        private static boolean isOlder(PostDto post, LocalDateTime createdAt, long id) {
+            int byTime = post.getCreatedAt().compareTo(createdAt);
+            return byTime < 0 || (byTime == 0 && post.getId() < id);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.secureapi.service;
+
+import com.example.secureapi.config.CacheMeters;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hit rate and size of the per-author timelines, as cache.*{cache="posts.timeline"}.
+ */
+@Component
+public class AuthorTimelineMetrics implements MeterBinder {
+
+    private final AuthorTimelineIndex authorTimelineIndex;
+
+    public AuthorTimelineMetrics(AuthorTimelineIndex authorTimelineIndex) {
+        this.authorTimelineIndex = authorTimelineIndex;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CacheMeters.bind(registry, "posts.timeline", authorTimelineIndex, AuthorTimelineIndex::stats, AuthorTimelineIndex::size);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.secureapi.service;
+
+import com.example.secureapi.dto.PostCursor;
+import com.example.secureapi.dto.PostDto;
+import com.example.secureapi.repository.PostRepository;
+import com.example.secureapi.tracing.RequestTrace;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Newest feed pages (no cursor) kept as already serialized JSON, one entry per page size.
+ * Every PostsChangedEvent moves the cache to a new version, so a page built from data read
+ * before a write is never served after it; the ttl only bounds writes made outside the application.
+ */
+@Service
+public class PostFeedCache {
+
+    private final PostRepository postRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Cache<String, FeedPage> cache;
+    private final AtomicLong version = new AtomicLong();
+
+    public PostFeedCache(PostRepository postRepository,
+                         ObjectMapper objectMapper,
+                         @Value("${posts.cache.enabled:true}") boolean enabled,
+                         @Value("${posts.cache.max-pages:16}") long maxPages,
+                         @Value("${posts.cache.ttl:30s}") Duration ttl) {
+        this.postRepository = postRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxPages)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the newest page of the feed, querying and serializing it only on a cache miss.
+     */
+    public FeedPage firstPage(int pageSize) {
+        if (!enabled) {
+            return load(pageSize);
+        }
+        // Concurrent misses for the same key wait for one query instead of each running their own
+        return cache.get(version.get() + "/" + pageSize, key -> load(pageSize));
+    }
+
+    @EventListener
+    public void onPostsChanged(PostsChangedEvent event) {
+        invalidateAll();
+    }
+
+    /**
+     * Drops every page. A page still being loaded under the old version is stored under a key
+     * that is never looked up again and ages out with the ttl.
+     */
+    public void invalidateAll() {
+        version.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Hit, miss and eviction counters; evictions include both size pressure and the ttl.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Age of the oldest page currently cached, i.e. how stale a response can be
+     * if posts were written outside the application.
+     */
+    public Duration oldestPageAge() {
+        long now = System.nanoTime();
+        long oldest = 0;
+        for (FeedPage page : cache.asMap().values()) {
+            oldest = Math.max(oldest, now - page.builtAtNanos);
+        }
+        return Duration.ofNanos(oldest);
+    }
+
+    private FeedPage load(int pageSize) {
+        List<PostDto> posts = postRepository.findFirstFeedPage(Limit.of(pageSize));
+
+        // A full page may have a successor, same rule as the uncached cursor pages
+        String nextCursor = null;
+        if (posts.size() == pageSize) {
+            PostDto last = posts.get(posts.size() - 1);
+            nextCursor = new PostCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        int span = RequestTrace.begin(RequestTrace.JSON_WRITE);
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(posts);
+            // Content hash, so a rebuilt page with the same posts keeps answering 304
+            String eTag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+            return new FeedPage(body, eTag, nextCursor, System.nanoTime());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the post feed", e);
+        } finally {
+            RequestTrace.end(span);
+        }
+    }
+
+    /**
+     * Serialized page with its ETag and next-page cursor (null on the last page).
+     */
+    public static class FeedPage {
+        private final byte[] body;
+        private final String eTag;
+        private final String nextCursor;
+        private final long builtAtNanos;
+
+        FeedPage(byte[] body, String eTag, String nextCursor, long builtAtNanos) {
+            this.body = body;
+            this.eTag = eTag;
+            this.nextCursor = nextCursor;
+            this.builtAtNanos = builtAtNanos;
+        }
+
+        /**
+         * The shared cached array; callers must not modify it.
+         */
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        public Duration getAge() {
+            return Duration.ofNanos(System.nanoTime() - builtAtNanos);
+        }
+    }
+}
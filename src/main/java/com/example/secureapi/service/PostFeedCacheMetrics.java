@@ -0,0 +1,30 @@
+package com.example.secureapi.service;
+
+import com.example.secureapi.config.CacheMeters;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hit rate and size of the newest feed pages cache, as cache.*{cache="posts.feed"}, and the age
+ * of its oldest page.
+ */
+@Component
+public class PostFeedCacheMetrics implements MeterBinder {
+
+    private final PostFeedCache postFeedCache;
+
+    public PostFeedCacheMetrics(PostFeedCache postFeedCache) {
+        this.postFeedCache = postFeedCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CacheMeters.bind(registry, "posts.feed", postFeedCache, PostFeedCache::stats, PostFeedCache::size);
+        Gauge.builder("posts.feed.cache.oldest.age", postFeedCache, cache -> cache.oldestPageAge().toMillis() / 1000.0)
+                .description("Age of the oldest cached feed page")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.secureapi.service;
+
+import com.example.secureapi.dto.PostDto;
+import com.example.secureapi.dto.PostIngestResult;
+import com.example.secureapi.entity.Post;
+import com.example.secureapi.entity.User;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports posts from a JSON array or an NDJSON stream without holding the whole input in memory.
+ * Items are validated with the PostDto constraints and inserted in chunks, one transaction per chunk,
+ * so Hibernate can send them as JDBC batches. Invalid or failing items are reported by their position
+ * and do not stop the rest of the import; only broken syntax in a JSON array does, which the result
+ * reports as truncated. Each committed chunk is published as a PostsCreatedEvent.
+ */
+@Service
+public class PostIngestService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectReader postReader;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public PostIngestService(ObjectMapper objectMapper,
+                             Validator validator,
+                             PlatformTransactionManager transactionManager,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${posts.ingest.batch-size:1000}") int batchSize) {
+        this.postReader = objectMapper.readerFor(PostDto.class);
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Imports the elements of a JSON array. Broken syntax leaves the parser without the next item,
+     * so the import stops there and the result is marked truncated; the chunks before it stay committed.
+     */
+    public PostIngestResult ingestArray(InputStream json, User author) throws IOException {
+        Batch batch = new Batch(author);
+        // readValues walks the elements of the root array
+        try (MappingIterator<PostDto> items = postReader.readValues(json)) {
+            while (true) {
+                PostDto item;
+                try {
+                    if (!items.hasNextValue()) {
+                        break;
+                    }
+                    item = items.nextValue();
+                } catch (JsonParseException e) {
+                    batch.reject("Malformed JSON: " + e.getOriginalMessage());
+                    batch.result.setTruncated(true);
+                    break;
+                } catch (DatabindException e) {
+                    // Wrong types inside one item: the iterator skips to the end of it
+                    batch.reject("Invalid item: " + e.getOriginalMessage());
+                    continue;
+                }
+                batch.add(item);
+            }
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Imports NDJSON, one post per line. Each line is parsed on its own, so a malformed line is
+     * reported as a failed item and the import goes on with the next; blank lines are skipped.
+     */
+    public PostIngestResult ingestLines(InputStream ndjson, User author) throws IOException {
+        Batch batch = new Batch(author);
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                PostDto item;
+                try {
+                    item = postReader.readValue(line);
+                } catch (JsonParseException e) {
+                    batch.reject("Malformed JSON: " + e.getOriginalMessage());
+                    continue;
+                } catch (DatabindException e) {
+                    batch.reject("Invalid item: " + e.getOriginalMessage());
+                    continue;
+                }
+                batch.add(item);
+            }
+        }
+        return batch.finish();
+    }
+
+    private String validate(PostDto item) {
+        if (item == null) {
+            return "Item is null";
+        }
+        Set<ConstraintViolation<PostDto>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void insert(List<IndexedPost> chunk, User author, PostIngestResult result) {
+        try {
+            List<PostDto> stored = transactionTemplate.execute(status -> persist(chunk, author));
+            result.addCreated(chunk.size());
+            eventPublisher.publishEvent(new PostsCreatedEvent(author.getUsername(), stored));
+        } catch (RuntimeException chunkFailure) {
+            // The chunk was rolled back; retry its items one by one to find the ones that fail
+            List<PostDto> stored = new ArrayList<>();
+            for (IndexedPost post : chunk) {
+                try {
+                    stored.addAll(transactionTemplate.execute(status -> persist(List.of(post), author)));
+                    result.addCreated(1);
+                } catch (RuntimeException e) {
+                    result.addFailure(post.index, "Could not be stored: " + e.getMessage());
+                }
+            }
+            if (!stored.isEmpty()) {
+                eventPublisher.publishEvent(new PostsCreatedEvent(author.getUsername(), stored));
+            }
+        }
+    }
+
+    private List<PostDto> persist(List<IndexedPost> chunk, User author) {
+        List<Post> posts = new ArrayList<>(chunk.size());
+        for (IndexedPost post : chunk) {
+            Post entity = new Post(post.dto.getTitle(), post.dto.getContent(), author);
+            entityManager.persist(entity);
+            posts.add(entity);
+        }
+        // Send the inserts now and detach them: with open-in-view the same persistence context
+        // would otherwise keep every imported post until the request ends
+        entityManager.flush();
+        entityManager.clear();
+
+        List<PostDto> stored = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            stored.add(new PostDto(post.getId(), post.getTitle(), post.getContent(), author.getName(),
+                    post.getCreatedAt(), post.getUpdatedAt()));
+        }
+        return stored;
+    }
+
+    /**
+     * Numbers the items of one import and inserts the valid ones a chunk at a time.
+     */
+    private class Batch {
+        private final User author;
+        private final PostIngestResult result = new PostIngestResult();
+        private final List<IndexedPost> chunk = new ArrayList<>(batchSize);
+        private int index;
+
+        Batch(User author) {
+            this.author = author;
+        }
+
+        void reject(String message) {
+            result.addFailure(index++, message);
+        }
+
+        void add(PostDto item) {
+            String violations = validate(item);
+            if (violations != null) {
+                reject(violations);
+                return;
+            }
+            chunk.add(new IndexedPost(index++, item));
+            if (chunk.size() == batchSize) {
+                insert(chunk, author, result);
+                chunk.clear();
+            }
+        }
+
+        PostIngestResult finish() {
+            result.setReceived(index);
+            if (!chunk.isEmpty()) {
+                insert(chunk, author, result);
+            }
+            return result;
+        }
+    }
+
+    private static class IndexedPost {
+        private final int index;
+        private final PostDto dto;
+
+        IndexedPost(int index, PostDto dto) {
+            this.index = index;
+            this.dto = dto;
+        }
+    }
+}
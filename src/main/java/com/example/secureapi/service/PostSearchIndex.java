@@ -0,0 +1,510 @@
+package com.example.secureapi.service;
+
+import com.example.secureapi.dto.PostDto;
+import com.example.secureapi.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over post titles and content. Posts are added as PostsCreatedEvents
+ * arrive, and the whole index is rebuilt from the database when the application starts.
+ * A search returns the ids of the posts containing every query term, ranked by BM25
+ * (title terms count TITLE_WEIGHT times). The caller loads the posts themselves.
+ * Posts changed or deleted outside the application are only picked up by the next rebuild.
+ */
+@Service
+public class PostSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    static final int TITLE_WEIGHT = 3;
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // Postings per block whose best possible score is kept, so blocks that cannot reach the current page are skipped
+    private static final int BLOCK = 128;
+
+    private final PostRepository postRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final int maxResults;
+
+    // Searches share the read lock; adding posts and swapping in a rebuilt index take the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    // Posts added while a rebuild reads the database; null when no rebuild is running
+    private List<PostDto> addedDuringRebuild;
+
+    public PostSearchIndex(PostRepository postRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${posts.search.enabled:true}") boolean enabled,
+                           @Value("${posts.search.max-results:1000}") int maxResults) {
+        this.postRepository = postRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxResults = Math.max(1, maxResults);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @EventListener
+    public void onPostsCreated(PostsCreatedEvent event) {
+        if (enabled) {
+            add(event.getPosts());
+        }
+    }
+
+    public void add(Collection<PostDto> posts) {
+        lock.writeLock().lock();
+        try {
+            for (PostDto post : posts) {
+                index.add(post);
+                if (addedDuringRebuild != null) {
+                    addedDuringRebuild.add(post);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads every post from the database into a new index and then replaces the current one,
+     * which keeps answering searches in the meantime.
+     */
+    public void rebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            addedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index rebuilt = new Index();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<PostDto> posts = postRepository.streamFeed()) {
+                    posts.forEach(rebuilt::add);
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                addedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // A post created while the rows were read may or may not be among them
+            if (!addedDuringRebuild.isEmpty()) {
+                long[] read = Arrays.copyOf(rebuilt.postIds, rebuilt.documents);
+                Arrays.sort(read);
+                for (PostDto post : addedDuringRebuild) {
+                    if (Arrays.binarySearch(read, post.getId()) < 0) {
+                        rebuilt.add(post);
+                    }
+                }
+            }
+            index = rebuilt;
+            addedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index built with {} posts and {} terms in {} ms",
+                rebuilt.documents, rebuilt.terms.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Ids of the matching posts from rank offset to offset + limit, best first. Only the first
+     * max-results matches can be paged through.
+     */
+    public Hits search(String query, int offset, int limit) {
+        int end = Math.min(offset + limit, maxResults);
+        if (offset >= end) {
+            return new Hits(List.of(), false);
+        }
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (queryTerms.isEmpty()) {
+            return new Hits(List.of(), false);
+        }
+
+        lock.readLock().lock();
+        try {
+            Hits hits = index.search(queryTerms, offset, end);
+            return end < maxResults ? hits : new Hits(hits.getPostIds(), false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return index.documents;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return index.terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lowercased runs of letters and digits; each CJK ideograph is a term of its own,
+     * since those scripts do not separate words with spaces.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isIdeographic(codePoint)) {
+                flush(token, tokens);
+                tokens.add(new String(Character.toChars(codePoint)));
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                token.appendCodePoint(Character.toLowerCase(codePoint));
+            } else {
+                flush(token, tokens);
+            }
+        }
+        flush(token, tokens);
+        return tokens;
+    }
+
+    private static void flush(StringBuilder token, List<String> tokens) {
+        if (token.length() > 0 && token.length() <= MAX_TERM_LENGTH) {
+            tokens.add(token.toString());
+        }
+        token.setLength(0);
+    }
+
+    /**
+     * One page of ranked post ids; more is set when further matches exist within max-results.
+     */
+    public static class Hits {
+        private final List<Long> postIds;
+        private final boolean more;
+
+        Hits(List<Long> postIds, boolean more) {
+            this.postIds = postIds;
+            this.more = more;
+        }
+
+        public List<Long> getPostIds() {
+            return postIds;
+        }
+
+        public boolean hasMore() {
+            return more;
+        }
+    }
+
+    /**
+     * Documents are numbered in the order they are added, so every posting list is sorted by document.
+     */
+    private static class Index {
+        private final Map<String, Postings> terms = new HashMap<>();
+        private long[] postIds = new long[1024];
+        private int[] lengths = new int[1024];
+        private int documents;
+        private long totalLength;
+
+        void add(PostDto post) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String term : tokenize(post.getTitle())) {
+                frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+            }
+            for (String term : tokenize(post.getContent())) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+
+            if (documents == postIds.length) {
+                postIds = Arrays.copyOf(postIds, documents * 2);
+                lengths = Arrays.copyOf(lengths, documents * 2);
+            }
+            int document = documents++;
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                length += entry.getValue();
+            }
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                terms.computeIfAbsent(entry.getKey(), term -> new Postings()).add(document, entry.getValue(), length);
+            }
+            postIds[document] = post.getId();
+            lengths[document] = length;
+            totalLength += length;
+        }
+
+        Hits search(Collection<String> queryTerms, int offset, int end) {
+            Postings[] lists = new Postings[queryTerms.size()];
+            int n = 0;
+            for (String term : queryTerms) {
+                Postings postings = terms.get(term);
+                if (postings == null) {
+                    return new Hits(List.of(), false);
+                }
+                lists[n++] = postings;
+            }
+            // Walk the rarest term and look the others up in it, so the cost follows the most selective term
+            Arrays.sort(lists, Comparator.comparingInt(postings -> postings.size));
+
+            float[] idf = new float[lists.length];
+            for (int t = 0; t < lists.length; t++) {
+                idf[t] = (float) Math.log(1 + (documents - lists[t].size + 0.5) / (lists[t].size + 0.5));
+            }
+            // BM25 length normalization as norm = normBase + normScale * length
+            float normBase = K1 * (1 - B);
+            float normScale = K1 * B * documents / totalLength;
+            // Best possible score of the other terms, for bounding the lead term's blocks
+            float othersBound = 0;
+            for (int t = 1; t < lists.length; t++) {
+                othersBound += idf[t] * bm25(lists[t].maxFrequency, normBase + normScale * lists[t].minLength);
+            }
+
+            // One match past the page end tells whether there is a next page
+            TopDocuments top = new TopDocuments(end + 1);
+            int[] positions = new int[lists.length];
+            Postings lead = lists[0];
+            candidates:
+            for (int i = 0; i < lead.size; i++) {
+                if (i % BLOCK == 0 && top.isFull()) {
+                    int block = i / BLOCK;
+                    float bound = idf[0] * bm25(lead.blockMaxFrequencies[block],
+                            normBase + normScale * lead.blockMinLengths[block]) + othersBound;
+                    if (bound < top.lowestScore()) {
+                        i += BLOCK - 1;
+                        continue;
+                    }
+                }
+                int document = lead.documents[i];
+                float norm = normBase + normScale * lengths[document];
+                float score = idf[0] * bm25(lead.frequencies[i], norm);
+                for (int t = 1; t < lists.length; t++) {
+                    int position = lists[t].advance(positions[t], document);
+                    positions[t] = position;
+                    if (position == lists[t].size) {
+                        break candidates;
+                    }
+                    if (lists[t].documents[position] != document) {
+                        continue candidates;
+                    }
+                    score += idf[t] * bm25(lists[t].frequencies[position], norm);
+                }
+                top.offer(document, score);
+            }
+
+            int[] ranked = top.sorted();
+            int pageEnd = Math.min(ranked.length, end);
+            List<Long> ids = new ArrayList<>(Math.max(0, pageEnd - offset));
+            for (int r = offset; r < pageEnd; r++) {
+                ids.add(postIds[ranked[r]]);
+            }
+            return new Hits(ids, ranked.length > end);
+        }
+
+        private static float bm25(byte frequency, float norm) {
+            return bm25(frequency & 0xFF, norm);
+        }
+
+        // Grows with the frequency and falls with the length, so block maxima give an upper bound
+        private static float bm25(int frequency, float norm) {
+            return frequency * (K1 + 1) / (frequency + norm);
+        }
+    }
+
+    /**
+     * Documents containing one term, with the term's weighted frequency in each (capped at 255).
+     * For every BLOCK postings, and for the whole list, the highest frequency and the shortest
+     * document are kept as the inputs of a score bound.
+     */
+    private static class Postings {
+        private int[] documents = new int[4];
+        private byte[] frequencies = new byte[4];
+        private int size;
+        private int[] blockMaxFrequencies = new int[1];
+        private int[] blockMinLengths = {Integer.MAX_VALUE};
+        private int maxFrequency;
+        private int minLength = Integer.MAX_VALUE;
+
+        void add(int document, int frequency, int length) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            int capped = Math.min(frequency, 255);
+            int block = size / BLOCK;
+            if (block == blockMaxFrequencies.length) {
+                blockMaxFrequencies = Arrays.copyOf(blockMaxFrequencies, block * 2);
+                blockMinLengths = Arrays.copyOf(blockMinLengths, block * 2);
+                Arrays.fill(blockMinLengths, block, block * 2, Integer.MAX_VALUE);
+            }
+            blockMaxFrequencies[block] = Math.max(blockMaxFrequencies[block], capped);
+            blockMinLengths[block] = Math.min(blockMinLengths[block], length);
+            maxFrequency = Math.max(maxFrequency, capped);
+            minLength = Math.min(minLength, length);
+
+            documents[size] = document;
+            frequencies[size] = (byte) capped;
+            size++;
+        }
+
+        /**
+         * First position at or after from whose document is not below target (size if none):
+         * gallops ahead, then binary searches the last step.
+         */
+        int advance(int from, int target) {
+            if (from >= size || documents[from] >= target) {
+                return from;
+            }
+            int low = from;
+            int step = 1;
+            while (low + step < size && documents[low + step] < target) {
+                low += step;
+                step <<= 1;
+            }
+            int high = Math.min(low + step, size);
+            // documents[low] < target and documents[high] >= target (or high == size)
+            while (high - low > 1) {
+                int middle = (low + high) >>> 1;
+                if (documents[middle] < target) {
+                    low = middle;
+                } else {
+                    high = middle;
+                }
+            }
+            return high;
+        }
+    }
+
+    /**
+     * Bounded min-heap of the best scores; equal scores rank the newer (later added) document first.
+     */
+    private static class TopDocuments {
+        private final int[] documents;
+        private final float[] scores;
+        private int size;
+
+        TopDocuments(int capacity) {
+            this.documents = new int[capacity];
+            this.scores = new float[capacity];
+        }
+
+        boolean isFull() {
+            return size == documents.length;
+        }
+
+        float lowestScore() {
+            return scores[0];
+        }
+
+        void offer(int document, float score) {
+            if (size < documents.length) {
+                documents[size] = document;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (worse(0, document, score)) {
+                documents[0] = document;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Documents best first; empties the heap.
+         */
+        int[] sorted() {
+            int[] result = new int[size];
+            for (int r = size - 1; r >= 0; r--) {
+                result[r] = documents[0];
+                size--;
+                documents[0] = documents[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private boolean worse(int slot, int document, float score) {
+            return scores[slot] < score || (scores[slot] == score && documents[slot] < document);
+        }
+
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) / 2;
+                if (!worse(slot, documents[parent], scores[parent])) {
+                    break;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int smallest = slot;
+                for (int child = 2 * slot + 1; child <= 2 * slot + 2 && child < size; child++) {
+                    if (worse(child, documents[smallest], scores[smallest])) {
+                        smallest = child;
+                    }
+                }
+                if (smallest == slot) {
+                    return;
+                }
+                swap(slot, smallest);
+                slot = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int document = documents[a];
+            documents[a] = documents[b];
+            documents[b] = document;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
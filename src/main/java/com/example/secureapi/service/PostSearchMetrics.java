@@ -0,0 +1,29 @@
+package com.example.secureapi.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size of the in-memory search index.
+ */
+@Component
+public class PostSearchMetrics implements MeterBinder {
+
+    private final PostSearchIndex postSearchIndex;
+
+    public PostSearchMetrics(PostSearchIndex postSearchIndex) {
+        this.postSearchIndex = postSearchIndex;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("posts.search.documents", postSearchIndex, PostSearchIndex::documentCount)
+                .description("Posts in the search index")
+                .register(registry);
+        Gauge.builder("posts.search.terms", postSearchIndex, PostSearchIndex::termCount)
+                .description("Distinct terms in the search index")
+                .register(registry);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.secureapi.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backlog and throughput of the async post writer. Posts written per group is posts.write.posts
+ * divided by posts.write.groups.
+ */
+@Component
+public class PostWriteMetrics implements MeterBinder {
+
+    private final PostWriteQueue postWriteQueue;
+
+    public PostWriteMetrics(PostWriteQueue postWriteQueue) {
+        this.postWriteQueue = postWriteQueue;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("posts.write.queued", postWriteQueue, PostWriteQueue::queued)
+                .description("Posts waiting for the writer thread")
+                .register(registry);
+        FunctionCounter.builder("posts.write.groups", postWriteQueue, PostWriteQueue::groupCount)
+                .description("Groups of posts committed by the writer thread")
+                .register(registry);
+        FunctionCounter.builder("posts.write.posts", postWriteQueue, PostWriteQueue::writtenCount)
+                .description("Posts stored by the writer thread")
+                .register(registry);
+        FunctionCounter.builder("posts.write.failed", postWriteQueue, PostWriteQueue::failedCount)
+                .description("Queued posts that could not be stored")
+                .register(registry);
+    }
+}
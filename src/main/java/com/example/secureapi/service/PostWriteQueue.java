@@ -0,0 +1,296 @@
+package com.example.secureapi.service;
+
+import com.example.secureapi.dto.PostDto;
+import com.example.secureapi.entity.Post;
+import com.example.secureapi.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Group commit for single-post creation (posts.write.mode=async). Requests only put the post on a
+ * bounded queue; one writer thread takes up to group-size posts, waiting at most max-delay for the
+ * group to fill, and inserts them in one transaction, so under a burst the number of commits grows
+ * with the number of groups rather than the number of posts. With durability=commit the future
+ * completes once the post's group is committed; with durability=accept the caller answers as soon
+ * as the post is queued, and a write that then fails is only logged and counted.
+ * A full queue rejects the post instead of letting the backlog grow.
+ */
+@Service
+public class PostWriteQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(PostWriteQueue.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean async;
+    private final boolean waitForCommit;
+    private final int groupSize;
+    private final long maxDelayNanos;
+    private final long retryAfterSeconds;
+    private final BlockingQueue<PendingPost> queue;
+    private final Thread writer;
+    private final AtomicLong groups = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean running = true;
+
+    public PostWriteQueue(PlatformTransactionManager transactionManager,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${posts.write.mode:sync}") String mode,
+                          @Value("${posts.write.durability:commit}") String durability,
+                          @Value("${posts.write.queue-capacity:1024}") int queueCapacity,
+                          @Value("${posts.write.group-size:100}") int groupSize,
+                          @Value("${posts.write.max-delay:2ms}") Duration maxDelay,
+                          @Value("${posts.write.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.async = switch (mode) {
+            case "sync" -> false;
+            case "async" -> true;
+            default -> throw new IllegalArgumentException("posts.write.mode must be sync or async: " + mode);
+        };
+        this.waitForCommit = switch (durability) {
+            case "commit" -> true;
+            case "accept" -> false;
+            default -> throw new IllegalArgumentException("posts.write.durability must be commit or accept: " + durability);
+        };
+        this.groupSize = Math.max(1, groupSize);
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.writer = new Thread(this::drain, "post-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Starts the writer once the EntityManager is injected; the constructor runs before field injection.
+     */
+    @PostConstruct
+    public void start() {
+        if (async) {
+            writer.start();
+        }
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Whether the caller should wait for the returned future before answering.
+     */
+    public boolean waitsForCommit() {
+        return waitForCommit;
+    }
+
+    /**
+     * Queues the post for the writer thread. The future completes with the stored post (id included)
+     * after its group commits, or exceptionally when it could not be stored.
+     *
+     * @throws RejectedExecutionException if the queue is full or the application is shutting down
+     */
+    public CompletableFuture<PostDto> submit(PostDto post, User author) {
+        PendingPost pending = new PendingPost(post, author);
+        if (!running || !queue.offer(pending)) {
+            throw new RejectedExecutionException("Post write queue is full");
+        }
+        return pending.result;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    public long groupCount() {
+        return groups.get();
+    }
+
+    public long writtenCount() {
+        return written.get();
+    }
+
+    public long failedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Writes what is queued and stops the writer; the transaction manager is still open at this point.
+     * The writer is not interrupted, since an interrupt inside a JDBC call can close H2's file.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        // Posts offered while the writer was stopping
+        PendingPost pending;
+        while ((pending = queue.poll()) != null) {
+            failed.incrementAndGet();
+            pending.result.completeExceptionally(new RejectedExecutionException("Post writer stopped"));
+        }
+    }
+
+    private void drain() {
+        List<PendingPost> group = new ArrayList<>(groupSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingPost first = running ? queue.poll(1, TimeUnit.SECONDS) : queue.poll();
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                fill(group);
+                write(group);
+            } catch (InterruptedException e) {
+                // Not expected (close() does not interrupt); stop taking new posts but write what was taken
+                running = false;
+                if (!group.isEmpty()) {
+                    write(group);
+                }
+            } catch (RuntimeException e) {
+                // The only writer must outlive any failure, or the queue fills and every post is refused
+                log.error("Post writer failed on a group of {} posts", group.size(), e);
+                for (PendingPost pending : group) {
+                    pending.result.completeExceptionally(e);
+                }
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds what is already queued, then waits for more until the group is full or max-delay has
+     * passed since its first post was taken.
+     */
+    private void fill(List<PendingPost> group) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (group.size() < groupSize) {
+            queue.drainTo(group, groupSize - group.size());
+            long remaining = deadline - System.nanoTime();
+            if (group.size() == groupSize || remaining <= 0 || !running) {
+                return;
+            }
+            PendingPost next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            group.add(next);
+        }
+    }
+
+    private void write(List<PendingPost> group) {
+        List<PostDto> stored;
+        try {
+            stored = transactionTemplate.execute(status -> persist(group));
+        } catch (RuntimeException groupFailure) {
+            // The group was rolled back; retry its posts one by one so one bad post does not fail the others
+            stored = new ArrayList<>(group.size());
+            for (PendingPost pending : group) {
+                try {
+                    stored.addAll(transactionTemplate.execute(status -> persist(List.of(pending))));
+                } catch (RuntimeException e) {
+                    stored.add(null);
+                    failed.incrementAndGet();
+                    pending.result.completeExceptionally(e);
+                    if (!waitForCommit) {
+                        log.warn("Accepted post by {} could not be stored: {}", pending.author.getUsername(), e.toString());
+                    }
+                }
+            }
+        }
+        groups.incrementAndGet();
+
+        // One event per author, as each event carries the posts of a single author
+        Map<String, List<PostDto>> byAuthor = new LinkedHashMap<>();
+        for (int i = 0; i < group.size(); i++) {
+            PostDto post = stored.get(i);
+            if (post != null) {
+                written.incrementAndGet();
+                byAuthor.computeIfAbsent(group.get(i).author.getUsername(), username -> new ArrayList<>()).add(post);
+            }
+        }
+        try {
+            byAuthor.forEach((username, posts) -> publishCreated(username, posts));
+        } finally {
+            // Completed after the events, so a client that reads right after its answer sees fresh caches
+            for (int i = 0; i < group.size(); i++) {
+                if (stored.get(i) != null) {
+                    group.get(i).result.complete(stored.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * The posts are committed whatever a listener does, so its failure is logged rather than
+     * failing posts that were stored.
+     */
+    private void publishCreated(String username, List<PostDto> posts) {
+        try {
+            eventPublisher.publishEvent(new PostsCreatedEvent(username, posts));
+        } catch (RuntimeException e) {
+            log.error("A listener failed on {} posts created by {}", posts.size(), username, e);
+        }
+    }
+
+    private List<PostDto> persist(List<PendingPost> group) {
+        // Entities are created per attempt: after a rollback the ones from the failed group keep their ids
+        List<Post> posts = new ArrayList<>(group.size());
+        for (PendingPost pending : group) {
+            Post post = new Post(pending.post.getTitle(), pending.post.getContent(), pending.author);
+            entityManager.persist(post);
+            posts.add(post);
+        }
+        // The writer thread has no request scope; clearing keeps its persistence context from growing
+        entityManager.flush();
+        entityManager.clear();
+
+        List<PostDto> stored = new ArrayList<>(group.size());
+        for (int i = 0; i < group.size(); i++) {
+            Post post = posts.get(i);
+            PendingPost pending = group.get(i);
+            stored.add(new PostDto(post.getId(), post.getTitle(), post.getContent(), pending.author.getName(),
+                    post.getCreatedAt(), post.getUpdatedAt()));
+        }
+        return stored;
+    }
+
+    private static class PendingPost {
+        private final PostDto post;
+        private final User author;
+        private final CompletableFuture<PostDto> result = new CompletableFuture<>();
+
+        PendingPost(PostDto post, User author) {
+            this.post = post;
+            this.author = author;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.secureapi.service;
+
+/**
+ * Published after posts are created or modified so that cached feed pages are rebuilt.
+ */
+public class PostsChangedEvent {
+}
@@ -0,0 +1,28 @@
+package com.example.secureapi.service;
+
+import com.example.secureapi.dto.PostDto;
+
+import java.util.List;
+
+/**
+ * Published once new posts are committed, with the stored posts, all by the same author. It is also
+ * a PostsChangedEvent, so cached feed pages are rebuilt as well.
+ */
+public class PostsCreatedEvent extends PostsChangedEvent {
+
+    private final String authorUsername;
+    private final List<PostDto> posts;
+
+    public PostsCreatedEvent(String authorUsername, List<PostDto> posts) {
+        this.authorUsername = authorUsername;
+        this.posts = List.copyOf(posts);
+    }
+
+    public String getAuthorUsername() {
+        return authorUsername;
+    }
+
+    public List<PostDto> getPosts() {
+        return posts;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.secureapi.service;
+
+import com.example.secureapi.config.CacheMeters;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hit rate and size of the user details cache, as cache.*{cache="users"}.
+ */
+@Component
+public class UserCacheMetrics implements MeterBinder {
+
+    private final UserDetailsServiceImpl userDetailsService;
+
+    public UserCacheMetrics(UserDetailsServiceImpl userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CacheMeters.bind(registry, "users", userDetailsService, UserDetailsServiceImpl::cacheStats, UserDetailsServiceImpl::cacheSize);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.secureapi.service;
+
+/**
+ * Published after a user is created or modified so that caches holding that user can drop it.
+ */
+public class UserChangedEvent {
+
+    private final String username;
+    private final boolean fromOtherNode;
+
+    public UserChangedEvent(String username) {
+        this(username, false);
+    }
+
+    public UserChangedEvent(String username, boolean fromOtherNode) {
+        this.username = username;
+        this.fromOtherNode = fromOtherNode;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Whether the change was made on another node and arrived through the invalidation bus.
+     */
+    public boolean isFromOtherNode() {
+        return fromOtherNode;
+    }
+}
@@ -2,29 +2,172 @@ package com.example.secureapi.service;
 
 import com.example.secureapi.entity.User;
 import com.example.secureapi.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
-    @Autowired
-    private UserRepository userRepository;
+    private final UserRepository userRepository;
+    private final boolean cacheEnabled;
+    private final Cache<String, CachedUser> cache;
+    // Set while the invalidation bus is stale: changes made on other nodes could be missed, so lookups read through
+    private volatile boolean cacheBypassed;
+
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  @Value("${users.cache.enabled:true}") boolean cacheEnabled,
+                                  @Value("${users.cache.max-size:10000}") long maxSize,
+                                  @Value("${users.cache.ttl:5m}") Duration ttl,
+                                  @Value("${users.cache.negative-ttl:10s}") Duration negativeTtl) {
+        this.userRepository = userRepository;
+        this.cacheEnabled = cacheEnabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new CachedUserExpiry(ttl, negativeTtl))
+                .recordStats()
+                .build();
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        CachedUser cachedUser = cachedUser(username);
+
+        if (cachedUser.isMissing()) {
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
+        // A fresh instance each time: the authentication manager erases credentials on the returned object
+        return new AccountDetails(
+                cachedUser.id,
+                cachedUser.username,
+                cachedUser.password,
+                cachedUser.name,
+                cachedUser.role,
                 new ArrayList<>() // No authorities for simplicity
         );
     }
+
+    /**
+     * The user as a post author (id, username and name), from the same cache the authentication
+     * filter fills, so writing a post needs no second user query; null for an unknown username.
+     * The result is a detached copy, not a managed entity.
+     */
+    public User findAuthor(String username) {
+        CachedUser cachedUser = cachedUser(username);
+        if (cachedUser.isMissing()) {
+            return null;
+        }
+        User author = new User(cachedUser.username, null, cachedUser.name);
+        author.setId(cachedUser.id);
+        return author;
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.getUsername());
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    public void setCacheBypassed(boolean cacheBypassed) {
+        this.cacheBypassed = cacheBypassed;
+    }
+
+    public boolean isCacheBypassed() {
+        return cacheBypassed;
+    }
+
+    public long cacheSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Hit and miss counters; a cached unknown username counts as a hit.
+     */
+    public CacheStats cacheStats() {
+        return cache.stats();
+    }
+
+    private CachedUser cachedUser(String username) {
+        return cacheEnabled && !cacheBypassed
+                ? cache.get(username, this::lookup)
+                : lookup(username);
+    }
+
+    private CachedUser lookup(String username) {
+        return userRepository.findByUsername(username)
+                .map(user -> new CachedUser(user.getId(), user.getUsername(), user.getPassword(), user.getName(), user.getRole()))
+                .orElse(CachedUser.MISSING);
+    }
+
+    /**
+     * Immutable snapshot of the fields needed to build UserDetails and a post author;
+     * MISSING marks an unknown username.
+     */
+    private static final class CachedUser {
+        static final CachedUser MISSING = new CachedUser(null, null, null, null, null);
+
+        final Long id;
+        final String username;
+        final String password;
+        final String name;
+        final String role;
+
+        CachedUser(Long id, String username, String password, String name, String role) {
+            this.id = id;
+            this.username = username;
+            this.password = password;
+            this.name = name;
+            this.role = role;
+        }
+
+        boolean isMissing() {
+            return this == MISSING;
+        }
+    }
+
+    /**
+     * Keeps negative lookups for a much shorter time than real users.
+     */
+    private static final class CachedUserExpiry implements Expiry<String, CachedUser> {
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        CachedUserExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, CachedUser value, long currentTime) {
+            return value.isMissing() ? negativeTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedUser value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedUser value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.example.secureapi.service;
 import com.example.secureapi.entity.User;
 import com.example.secureapi.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -17,6 +18,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public User registerUser(String username, String password, String name) {
         if (userRepository.existsByUsername(username)) {
             throw new IllegalArgumentException("Username already exists");
@@ -27,7 +31,10 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(password));
         user.setName(name);
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        // Drops any cached lookup of this username, including a cached "not found"
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getUsername()));
+        return savedUser;
     }
 
     public User findByUsername(String username) {
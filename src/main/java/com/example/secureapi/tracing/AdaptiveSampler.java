@@ -0,0 +1,43 @@
+package com.example.secureapi.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples about {@code targetPerSecond} requests per second whatever the load: the probability
+ * for the current second is the target divided by the number of requests seen in the previous one.
+ * A burst within a second is capped at twice the target, so a sudden spike cannot flood the exporter.
+ */
+class AdaptiveSampler {
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private final int targetPerSecond;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong seen = new AtomicLong();
+    private final AtomicLong sampled = new AtomicLong();
+    private volatile double probability = 1.0;
+
+    AdaptiveSampler(int targetPerSecond) {
+        this.targetPerSecond = Math.max(0, targetPerSecond);
+    }
+
+    boolean sample() {
+        if (targetPerSecond == 0) {
+            return false;
+        }
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            // One thread rolls the window; counts racing with it land in either second, which is close enough
+            long previous = seen.getAndSet(0);
+            sampled.set(0);
+            probability = previous <= targetPerSecond ? 1.0 : (double) targetPerSecond / previous;
+        }
+        seen.incrementAndGet();
+        if (ThreadLocalRandom.current().nextDouble() >= probability) {
+            return false;
+        }
+        return sampled.incrementAndGet() <= 2L * targetPerSecond;
+    }
+}
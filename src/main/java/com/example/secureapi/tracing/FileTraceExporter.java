@@ -0,0 +1,76 @@
+package com.example.secureapi.tracing;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends traces to a local NDJSON file, one trace per line with its spans in opening order.
+ * Span times are microseconds relative to the start of the request.
+ */
+class FileTraceExporter extends TraceExporter {
+
+    private final JsonFactory jsonFactory;
+    private final Path path;
+
+    FileTraceExporter(JsonFactory jsonFactory, Path path, int queueCapacity) throws IOException {
+        super("file", queueCapacity);
+        this.jsonFactory = jsonFactory;
+        this.path = path.toAbsolutePath();
+        if (this.path.getParent() != null) {
+            Files.createDirectories(this.path.getParent());
+        }
+    }
+
+    @Override
+    protected void write(List<RequestTrace> traces) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE))) {
+            for (RequestTrace trace : traces) {
+                // Each generator writes one line; closing it leaves the stream open for the next trace
+                try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+                    json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                    writeTrace(json, trace);
+                }
+                out.write('\n');
+            }
+        }
+    }
+
+    private static void writeTrace(JsonGenerator json, RequestTrace trace) throws IOException {
+        long requestStart = trace.startEpochNanos(0);
+        json.writeStartObject();
+        json.writeStringField("traceId", trace.traceId());
+        json.writeNumberField("timestamp", requestStart / 1_000_000L);
+        json.writeStringField("method", trace.getMethod());
+        json.writeStringField("route", trace.getRoute());
+        json.writeNumberField("status", trace.getStatus());
+        json.writeNumberField("durationMicros", trace.durationNanos() / 1000);
+        json.writeBooleanField("slow", trace.isSlow());
+        if (trace.droppedSpans() > 0) {
+            json.writeNumberField("droppedSpans", trace.droppedSpans());
+        }
+        json.writeArrayFieldStart("spans");
+        for (int span = 0; span < trace.spanCount(); span++) {
+            json.writeStartObject();
+            json.writeNumberField("id", span);
+            if (trace.parent(span) >= 0) {
+                json.writeNumberField("parent", trace.parent(span));
+            }
+            json.writeStringField("name", trace.spanName(span));
+            json.writeNumberField("startMicros", (trace.startEpochNanos(span) - requestStart) / 1000);
+            json.writeNumberField("durationMicros", trace.durationNanos(span) / 1000);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.secureapi.tracing;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Posts traces to an OTLP/HTTP collector in the JSON encoding (e.g. http://localhost:4318/v1/traces),
+ * one request per batch. The request span is a SERVER span with the HTTP attributes;
+ * the phases below it are INTERNAL spans.
+ */
+class OtlpTraceExporter extends TraceExporter {
+
+    private static final int SPAN_KIND_INTERNAL = 1;
+    private static final int SPAN_KIND_SERVER = 2;
+    private static final int STATUS_CODE_ERROR = 2;
+
+    private final JsonFactory jsonFactory;
+    private final URI endpoint;
+    private final String serviceName;
+    private final HttpClient httpClient;
+
+    OtlpTraceExporter(JsonFactory jsonFactory, URI endpoint, String serviceName, int queueCapacity) {
+        super("otlp", queueCapacity);
+        this.jsonFactory = jsonFactory;
+        this.endpoint = endpoint;
+        this.serviceName = serviceName;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    @Override
+    protected void write(List<RequestTrace> traces) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(encode(traces)))
+                .build();
+        HttpResponse<Void> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting traces", e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Collector answered " + response.statusCode());
+        }
+    }
+
+    private byte[] encode(List<RequestTrace> traces) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(512 * traces.size());
+        try (JsonGenerator json = jsonFactory.createGenerator(body, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("resourceSpans");
+            json.writeStartObject();
+            json.writeObjectFieldStart("resource");
+            json.writeArrayFieldStart("attributes");
+            writeAttribute(json, "service.name", serviceName);
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeArrayFieldStart("scopeSpans");
+            json.writeStartObject();
+            json.writeObjectFieldStart("scope");
+            json.writeStringField("name", RequestTracer.class.getPackageName());
+            json.writeEndObject();
+            json.writeArrayFieldStart("spans");
+            for (RequestTrace trace : traces) {
+                for (int span = 0; span < trace.spanCount(); span++) {
+                    writeSpan(json, trace, span);
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        return body.toByteArray();
+    }
+
+    private static void writeSpan(JsonGenerator json, RequestTrace trace, int span) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("traceId", trace.traceId());
+        json.writeStringField("spanId", trace.spanId(span));
+        if (trace.parent(span) >= 0) {
+            json.writeStringField("parentSpanId", trace.spanId(trace.parent(span)));
+        }
+        json.writeStringField("name", trace.spanName(span));
+        json.writeNumberField("kind", span == 0 ? SPAN_KIND_SERVER : SPAN_KIND_INTERNAL);
+        // 64-bit integers are strings in the OTLP JSON encoding
+        json.writeStringField("startTimeUnixNano", Long.toString(trace.startEpochNanos(span)));
+        json.writeStringField("endTimeUnixNano", Long.toString(trace.endEpochNanos(span)));
+        if (span == 0) {
+            json.writeArrayFieldStart("attributes");
+            writeAttribute(json, "http.request.method", trace.getMethod());
+            writeAttribute(json, "http.route", trace.getRoute());
+            json.writeStartObject();
+            json.writeStringField("key", "http.response.status_code");
+            json.writeObjectFieldStart("value");
+            json.writeStringField("intValue", Integer.toString(trace.getStatus()));
+            json.writeEndObject();
+            json.writeEndObject();
+            writeAttribute(json, "app.slow_request", Boolean.toString(trace.isSlow()));
+            json.writeEndArray();
+            if (trace.getStatus() >= 500) {
+                json.writeObjectFieldStart("status");
+                json.writeNumberField("code", STATUS_CODE_ERROR);
+                json.writeEndObject();
+            }
+        }
+        json.writeEndObject();
+    }
+
+    private static void writeAttribute(JsonGenerator json, String key, String value) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("key", key);
+        json.writeObjectFieldStart("value");
+        json.writeStringField("stringValue", value);
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.secureapi.tracing;
+
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds a span per repository call (the query phase), named after the repository method.
+ * Feed queries project straight into PostDto, so their entity-to-DTO mapping is inside this span.
+ */
+public class RepositoryTracingListener implements RepositoryMethodInvocationListener {
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        if (RequestTrace.current() == null) {
+            return;
+        }
+        RequestTrace.record(invocation.getRepositoryInterface().getSimpleName() + "." + invocation.getMethod().getName(),
+                invocation.getDuration(TimeUnit.NANOSECONDS));
+    }
+}
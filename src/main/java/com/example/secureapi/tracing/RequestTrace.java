@@ -0,0 +1,239 @@
+package com.example.secureapi.tracing;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Spans of one request, kept in parallel primitive arrays instead of one object per span.
+ * Span 0 is the request itself; every other span has the span that was open when it began
+ * as its parent. A trace is filled by the request thread only and handed to the exporter
+ * after {@link RequestTracer#finish} closes it.
+ * <p>
+ * Instrumented code does not need the trace: {@link #begin(String)} and {@link #end(int)}
+ * work on the trace of the current thread and do nothing when there is none.
+ */
+public final class RequestTrace {
+
+    public static final String JWT_PARSE = "jwt.parse";
+    public static final String USER_LOAD = "user.load";
+    public static final String DTO_MAPPING = "dto.mapping";
+    public static final String JSON_WRITE = "json.write";
+    // Query spans are named after the repository method, e.g. PostRepository.findFeedPageAfter
+
+    static final int INITIAL_SPANS = 16;
+    static final int MAX_SPANS = 256;
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private final long traceIdHigh;
+    private final long traceIdLow;
+    private final long startEpochNanos;
+    private final long startNanos;
+    private final boolean sampled;
+
+    private String[] names = new String[INITIAL_SPANS];
+    private int[] parents = new int[INITIAL_SPANS];
+    private long[] starts = new long[INITIAL_SPANS];
+    private long[] ends = new long[INITIAL_SPANS];
+    private int count;
+    private int open;
+    private int dropped;
+
+    private String method;
+    private String route;
+    private int status;
+    private boolean slow;
+
+    RequestTrace(boolean sampled) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        this.traceIdHigh = random.nextLong();
+        this.traceIdLow = random.nextLong();
+        this.startEpochNanos = System.currentTimeMillis() * 1_000_000L;
+        this.startNanos = System.nanoTime();
+        this.sampled = sampled;
+        names[0] = "request";
+        parents[0] = -1;
+        starts[0] = startNanos;
+        count = 1;
+    }
+
+    /**
+     * Opens a span on the current thread's trace; returns the handle for {@link #end(int)},
+     * or -1 when the thread has no trace.
+     */
+    public static int begin(String name) {
+        RequestTrace trace = CURRENT.get();
+        return trace == null ? -1 : trace.open(name, System.nanoTime());
+    }
+
+    public static void end(int span) {
+        if (span < 0) {
+            return;
+        }
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.close(span, System.nanoTime());
+        }
+    }
+
+    /**
+     * Adds an already finished span under the span open now, for code that reports its duration afterwards.
+     */
+    public static void record(String name, long durationNanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            long now = System.nanoTime();
+            int span = trace.open(name, now - durationNanos);
+            if (span >= 0) {
+                trace.close(span, now);
+            }
+        }
+    }
+
+    static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    void attach() {
+        CURRENT.set(this);
+    }
+
+    void detach() {
+        CURRENT.remove();
+    }
+
+    private int open(String name, long startNanos) {
+        if (count == names.length && !grow()) {
+            dropped++;
+            return -1;
+        }
+        int span = count++;
+        names[span] = name;
+        parents[span] = open;
+        starts[span] = startNanos;
+        ends[span] = 0;
+        open = span;
+        return span;
+    }
+
+    private void close(int span, long endNanos) {
+        ends[span] = endNanos;
+        // Spans are closed in reverse order of opening; a span left open is closed with its parent
+        if (span <= open) {
+            open = parents[span];
+        }
+    }
+
+    private boolean grow() {
+        if (names.length == MAX_SPANS) {
+            return false;
+        }
+        int capacity = Math.min(MAX_SPANS, names.length * 2);
+        names = Arrays.copyOf(names, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        return true;
+    }
+
+    void finish(String method, String route, int status, long slowThresholdNanos) {
+        long now = System.nanoTime();
+        this.method = method;
+        this.route = route;
+        this.status = status;
+        names[0] = method + " " + route;
+        for (int span = 0; span < count; span++) {
+            if (ends[span] == 0) {
+                ends[span] = now;
+            }
+        }
+        open = 0;
+        slow = durationNanos() >= slowThresholdNanos;
+    }
+
+    boolean isSampled() {
+        return sampled;
+    }
+
+    public boolean isSlow() {
+        return slow;
+    }
+
+    public String traceId() {
+        return hex(traceIdHigh) + hex(traceIdLow);
+    }
+
+    /**
+     * Span ids only need to be unique within the trace: the low trace id bits plus the span index.
+     */
+    public String spanId(int span) {
+        return hex(traceIdLow + span);
+    }
+
+    public int spanCount() {
+        return count;
+    }
+
+    public int droppedSpans() {
+        return dropped;
+    }
+
+    public String spanName(int span) {
+        return names[span];
+    }
+
+    public int parent(int span) {
+        return parents[span];
+    }
+
+    public long startEpochNanos(int span) {
+        return startEpochNanos + (starts[span] - startNanos);
+    }
+
+    public long endEpochNanos(int span) {
+        return startEpochNanos + (ends[span] - startNanos);
+    }
+
+    public long durationNanos(int span) {
+        return ends[span] - starts[span];
+    }
+
+    public long durationNanos() {
+        return durationNanos(0);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * One line per span, indented by depth, with milliseconds since the request started.
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        int[] depth = new int[count];
+        for (int span = 0; span < count; span++) {
+            depth[span] = span == 0 ? 0 : depth[parents[span]] + 1;
+            text.append('\n').append("  ".repeat(depth[span]))
+                    .append(names[span])
+                    .append(String.format(" +%.3fms %.3fms", (starts[span] - startNanos) / 1e6, durationNanos(span) / 1e6));
+        }
+        if (dropped > 0) {
+            text.append("\n(").append(dropped).append(" spans dropped)");
+        }
+        return text.toString();
+    }
+
+    private static String hex(long value) {
+        String digits = Long.toHexString(value);
+        return "0".repeat(16 - digits.length()) + digits;
+    }
+}
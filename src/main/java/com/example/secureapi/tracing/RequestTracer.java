@@ -0,0 +1,91 @@
+package com.example.secureapi.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Starts and finishes request traces. Every request is traced while it runs, so a slow one can
+ * be kept whatever the sampling decided: requests above the slow threshold are logged with their
+ * span tree and always exported, the rest are exported only when sampled.
+ */
+@Component
+public class RequestTracer {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestTracer.class);
+
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final AdaptiveSampler sampler;
+    private final TraceExporter exporter;
+
+    public RequestTracer(ObjectMapper objectMapper,
+                         @Value("${tracing.enabled:true}") boolean enabled,
+                         @Value("${tracing.sample-per-second:5}") int samplePerSecond,
+                         @Value("${tracing.slow-threshold:500ms}") Duration slowThreshold,
+                         @Value("${tracing.exporter:none}") String exporter,
+                         @Value("${tracing.file.path:traces.ndjson}") Path filePath,
+                         @Value("${tracing.otlp.endpoint:http://localhost:4318/v1/traces}") URI otlpEndpoint,
+                         @Value("${tracing.queue-capacity:1024}") int queueCapacity,
+                         @Value("${spring.application.name:secure-api}") String serviceName) throws IOException {
+        this.enabled = enabled;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampler = new AdaptiveSampler(samplePerSecond);
+        this.exporter = switch (exporter) {
+            case "none" -> null;
+            case "file" -> new FileTraceExporter(objectMapper.getFactory(), filePath, queueCapacity);
+            case "otlp" -> new OtlpTraceExporter(objectMapper.getFactory(), otlpEndpoint, serviceName, queueCapacity);
+            default -> throw new IllegalArgumentException("tracing.exporter must be none, file or otlp: " + exporter);
+        };
+        if (this.exporter != null) {
+            this.exporter.start();
+        }
+    }
+
+    /**
+     * Opens a trace on the current thread, or returns null when tracing is off.
+     */
+    public RequestTrace start() {
+        if (!enabled) {
+            return null;
+        }
+        RequestTrace trace = new RequestTrace(exporter != null && sampler.sample());
+        trace.attach();
+        return trace;
+    }
+
+    public void finish(RequestTrace trace, String method, String route, int status) {
+        trace.detach();
+        trace.finish(method, route, status, slowThresholdNanos);
+        if (trace.isSlow()) {
+            log.warn("Slow request {} {} answered {} in {} ms, trace {}:{}", method, route, status,
+                    trace.durationNanos() / 1_000_000, trace.traceId(), trace.format());
+        }
+        if (exporter != null && (trace.isSampled() || trace.isSlow())) {
+            exporter.export(trace);
+        }
+    }
+
+    public long exportedCount() {
+        return exporter == null ? 0 : exporter.exportedCount();
+    }
+
+    public long droppedCount() {
+        return exporter == null ? 0 : exporter.droppedCount();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (exporter != null) {
+            exporter.close();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.secureapi.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes finished traces from a background thread, in batches. Request threads only offer the
+ * trace to a bounded queue; when the exporter falls behind, new traces are dropped and counted
+ * instead of slowing requests down.
+ */
+public abstract class TraceExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(TraceExporter.class);
+    private static final int MAX_BATCH = 256;
+
+    private final BlockingQueue<RequestTrace> queue;
+    private final Thread worker;
+    private final AtomicLong exported = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+    private boolean failing;
+
+    protected TraceExporter(String name, int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.worker = new Thread(this::drain, "trace-exporter-" + name);
+        this.worker.setDaemon(true);
+    }
+
+    /**
+     * Starts the worker; called once the subclass is fully constructed.
+     */
+    void start() {
+        worker.start();
+    }
+
+    public void export(RequestTrace trace) {
+        if (!queue.offer(trace)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long exportedCount() {
+        return exported.get();
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes what is queued and stops the worker.
+     */
+    public void close() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    protected abstract void write(List<RequestTrace> traces) throws IOException;
+
+    private void drain() {
+        List<RequestTrace> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                RequestTrace first = running ? queue.poll(1, TimeUnit.SECONDS) : queue.poll();
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                // close() was called: loop again without waiting to flush the rest of the queue
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<RequestTrace> batch) {
+        try {
+            write(batch);
+            exported.addAndGet(batch.size());
+            failing = false;
+        } catch (IOException | RuntimeException e) {
+            dropped.addAndGet(batch.size());
+            // One warning per outage rather than one per batch
+            if (!failing) {
+                log.warn("Could not export {} traces: {}", batch.size(), e.toString());
+                failing = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.secureapi.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Traces each request from before the security chain (so JWT parsing and the user load are
+ * included) until the response status is known. Streamed responses finish on an async dispatch
+ * and are traced up to the point the controller returned.
+ */
+public class TracingFilter extends OncePerRequestFilter {
+
+    private final RequestTracer tracer;
+
+    public TracingFilter(RequestTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain)
+            throws ServletException, IOException {
+        RequestTrace trace = tracer.start();
+        if (trace == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // The matched pattern groups requests like http.server.requests does; unmatched ones keep their path
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            tracer.finish(trace, request.getMethod(),
+                    pattern == null ? request.getRequestURI() : pattern.toString(), response.getStatus());
+        }
+    }
+}
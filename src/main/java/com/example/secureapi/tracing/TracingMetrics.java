@@ -0,0 +1,29 @@
+package com.example.secureapi.tracing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * What the trace exporter wrote and lost.
+ */
+@Component
+public class TracingMetrics implements MeterBinder {
+
+    private final RequestTracer requestTracer;
+
+    public TracingMetrics(RequestTracer requestTracer) {
+        this.requestTracer = requestTracer;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tracing.traces.exported", requestTracer, RequestTracer::exportedCount)
+                .description("Request traces written by the trace exporter")
+                .register(registry);
+        FunctionCounter.builder("tracing.traces.dropped", requestTracer, RequestTracer::droppedCount)
+                .description("Request traces lost to a full export queue or a failed export")
+                .register(registry);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.secureapi.web;
+
+import com.example.secureapi.controller.AuthController;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers 503 with Retry-After when a controller could not get a database connection in time
+ * (spring.datasource.hikari.connection-timeout), instead of a generic 500.
+ * With virtual threads the connection pool is what bounds concurrent database work, so this is
+ * how overload shows up there.
+ */
+@RestControllerAdvice
+public class DatabaseBusyHandler {
+
+    private final long retryAfterSeconds;
+
+    public DatabaseBusyHandler(@Value("${db.busy.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @ExceptionHandler({DataAccessResourceFailureException.class, CannotCreateTransactionException.class})
+    public ResponseEntity<AuthController.ErrorResponse> databaseBusy(Exception e) {
+        return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(new AuthController.ErrorResponse("Service busy", "No database connection available"));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.secureapi.web;
+
+import com.example.secureapi.tracing.RequestTrace;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Jackson converter for response bodies, timing each write and counting its bytes per endpoint
+ * (http.server.json.write and http.server.json.size, tagged with the method and matched URI pattern).
+ * The time includes handing the bytes to the container, which blocks once a large body fills
+ * the response buffer. Bodies written as byte[] (the cached feed page) and streamed exports do not pass here.
+ */
+public class MeteredJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final MeterRegistry registry;
+    private final Map<String, EndpointMeters> meters = new ConcurrentHashMap<>();
+
+    public MeteredJsonHttpMessageConverter(ObjectMapper objectMapper, MeterRegistry registry) {
+        super(objectMapper);
+        this.registry = registry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        CountingOutputMessage countingMessage = new CountingOutputMessage(outputMessage);
+        long start = System.nanoTime();
+        int span = RequestTrace.begin(RequestTrace.JSON_WRITE);
+        try {
+            super.writeInternal(object, type, countingMessage);
+        } finally {
+            RequestTrace.end(span);
+            EndpointMeters endpoint = meters.computeIfAbsent(currentEndpoint(), this::endpointMeters);
+            endpoint.writeTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            endpoint.size.record(countingMessage.count());
+        }
+    }
+
+    private EndpointMeters endpointMeters(String endpoint) {
+        int separator = endpoint.indexOf(' ');
+        String method = endpoint.substring(0, separator);
+        String uri = endpoint.substring(separator + 1);
+        return new EndpointMeters(
+                Timer.builder("http.server.json.write")
+                        .description("Serializing and writing a JSON response body")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .register(registry),
+                DistributionSummary.builder("http.server.json.size")
+                        .description("Size of JSON response bodies")
+                        .baseUnit("bytes")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .register(registry));
+    }
+
+    /**
+     * Method and URI pattern of the handler writing the body, the same values http.server.requests uses.
+     */
+    private static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return "UNKNOWN UNKNOWN";
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern == null ? "UNKNOWN" : pattern);
+    }
+
+    private static class EndpointMeters {
+        private final Timer writeTime;
+        private final DistributionSummary size;
+
+        EndpointMeters(Timer writeTime, DistributionSummary size) {
+            this.writeTime = writeTime;
+            this.size = size;
+        }
+    }
+
+    private static class CountingOutputMessage implements HttpOutputMessage {
+        private final HttpOutputMessage delegate;
+        private CountingOutputStream body;
+
+        CountingOutputMessage(HttpOutputMessage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingOutputStream(delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        long count() {
+            return body == null ? 0 : body.count;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
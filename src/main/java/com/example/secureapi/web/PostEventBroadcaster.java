@@ -0,0 +1,473 @@
+package com.example.secureapi.web;
+
+import com.example.secureapi.service.PostsCreatedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes newly created posts to Server-Sent Events subscribers (GET /api/posts/stream).
+ * Each PostsCreatedEvent becomes one "posts" event holding the posts as a JSON array, serialized
+ * once for all subscribers. An idle subscriber costs only its emitter: no thread waits on it, and
+ * a shared pool (send-threads kept when idle) sends what was queued for each one. A subscriber whose buffer is full is
+ * closed rather than allowed to hold events back or grow without bound; it can reconnect.
+ * <p>
+ * Publishing only appends the event to the log; one dispatcher thread hands the events, in order,
+ * to the subscribers. A write to a client that stopped reading blocks its pool thread until the
+ * container's write timeout, so the pool starts another thread whenever all of its threads are
+ * busy: stuck clients never take the threads the others need. A subscriber whose write has been
+ * blocked for write-timeout is closed, which ends its stream once that write returns or fails.
+ * <p>
+ * The last replay-size events are kept, so a client reconnecting with Last-Event-ID gets what it
+ * missed. Event ids start with an id of this run, so ids from before a restart are recognised.
+ * When the missed events are no longer kept, or an event is too large to push (a bulk import),
+ * a "reset" event tells the client to reload the feed instead.
+ */
+@Component
+public class PostEventBroadcaster {
+
+    static final String POSTS_EVENT = "posts";
+    static final String RESET_EVENT = "reset";
+
+    private static final Logger log = LoggerFactory.getLogger(PostEventBroadcaster.class);
+    private static final StreamEvent HEARTBEAT = new StreamEvent(null, 0, null, null);
+    private static final StreamEvent CLOSE = new StreamEvent(null, 0, null, null);
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int replaySize;
+    private final int maxPostsPerEvent;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final long writeTimeoutNanos;
+    private final long retryAfterSeconds;
+    private final String runId;
+    // One thread: fan-out in sequence order, heartbeats and the write timeout check
+    private final ScheduledThreadPoolExecutor dispatcher;
+    private final ThreadPoolExecutor writers;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+
+    // Guards the log, its sequence, and registration, so a new subscriber misses nothing
+    private final ReentrantLock retainedLock = new ReentrantLock();
+    private final ArrayDeque<StreamEvent> retained = new ArrayDeque<>();
+    private long lastSequence;
+
+    public PostEventBroadcaster(ObjectMapper objectMapper,
+                                @Value("${posts.events.buffer-size:64}") int bufferSize,
+                                @Value("${posts.events.replay-size:256}") int replaySize,
+                                @Value("${posts.events.max-posts-per-event:100}") int maxPostsPerEvent,
+                                @Value("${posts.events.max-subscribers:1000}") int maxSubscribers,
+                                @Value("${posts.events.timeout:30m}") Duration timeout,
+                                @Value("${posts.events.heartbeat:30s}") Duration heartbeat,
+                                @Value("${posts.events.send-threads:2}") int sendThreads,
+                                @Value("${posts.events.write-timeout:5s}") Duration writeTimeout,
+                                @Value("${posts.events.retry-after-seconds:5}") long retryAfterSeconds) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.replaySize = Math.max(0, replaySize);
+        this.maxPostsPerEvent = Math.max(1, maxPostsPerEvent);
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.runId = Long.toString(System.currentTimeMillis(), 36);
+        this.dispatcher = new ScheduledThreadPoolExecutor(1, new EventThreadFactory("post-events-dispatch"));
+        // Handed over, never queued: a drain gets an idle thread or a new one. At most one drain runs per
+        // subscriber, so the pool stays within the subscriber limit plus the closed streams still writing
+        int coreThreads = Math.max(1, sendThreads);
+        this.writers = new ThreadPoolExecutor(coreThreads, Math.max(coreThreads, 2 * maxSubscribers), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), new EventThreadFactory("post-events"));
+        // A comment line now and then keeps proxies from closing the connection and finds dead clients
+        long heartbeatMillis = heartbeat.toMillis();
+        if (heartbeatMillis > 0) {
+            dispatcher.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        }
+        long checkMillis = Math.max(100, writeTimeout.toMillis() / 2);
+        dispatcher.scheduleAtFixedRate(this::closeStalled, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream for a new subscriber, first replaying what it missed after lastEventId
+     * (null for a first connection).
+     *
+     * @throws RejectedExecutionException if max-subscribers streams are already open
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        retainedLock.lock();
+        try {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new RejectedExecutionException("Too many event stream subscribers");
+            }
+            subscriber.start(missedEvents(lastEventId), lastSequence);
+            subscribers.add(subscriber);
+        } finally {
+            retainedLock.unlock();
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @EventListener
+    public void onPostsCreated(PostsCreatedEvent event) {
+        String name = RESET_EVENT;
+        String data;
+        if (event.getPosts().size() > maxPostsPerEvent) {
+            data = "{\"reason\":\"bulk\"}";
+        } else {
+            try {
+                data = objectMapper.writeValueAsString(event.getPosts());
+                name = POSTS_EVENT;
+            } catch (JsonProcessingException e) {
+                // The posts are stored; the clients reload the feed instead of missing them
+                log.error("Could not serialize {} created posts for the event stream", event.getPosts().size(), e);
+                data = "{\"reason\":\"error\"}";
+            }
+        }
+
+        StreamEvent streamEvent;
+        retainedLock.lock();
+        try {
+            long sequence = ++lastSequence;
+            streamEvent = new StreamEvent(runId + "-" + sequence, sequence, name, data);
+            retained.addLast(streamEvent);
+            if (retained.size() > replaySize) {
+                retained.removeFirst();
+            }
+            // Submitted under the lock, so the single dispatcher fans the events out in sequence order
+            dispatch(() -> fanOut(streamEvent));
+        } finally {
+            retainedLock.unlock();
+        }
+        published.incrementAndGet();
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    public long publishedCount() {
+        return published.get();
+    }
+
+    public long evictedCount() {
+        return evicted.get();
+    }
+
+    public long replayedCount() {
+        return replayed.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        writers.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.emitter.complete();
+            } catch (IllegalStateException e) {
+                // The container has already closed this connection
+            }
+        }
+    }
+
+    /**
+     * Called with the lock held: the retained events after lastEventId (none for a client that is up
+     * to date), a reset event when some of them are no longer kept, or the current position for a
+     * new client.
+     */
+    private List<StreamEvent> missedEvents(String lastEventId) {
+        String current = runId + "-" + lastSequence;
+        if (lastEventId == null || lastEventId.isEmpty()) {
+            // An id without data moves the client's Last-Event-ID without dispatching an event
+            return List.of(new StreamEvent(current, lastSequence, null, null));
+        }
+
+        long seen = parseSequence(lastEventId);
+        long oldestKept = retained.isEmpty() ? lastSequence + 1 : retained.getFirst().sequence;
+        if (seen < 0 || seen > lastSequence || seen + 1 < oldestKept) {
+            return List.of(new StreamEvent(current, lastSequence, RESET_EVENT, "{\"reason\":\"gap\"}"));
+        }
+        List<StreamEvent> missed = new ArrayList<>();
+        for (StreamEvent event : retained) {
+            if (event.sequence > seen) {
+                missed.add(event);
+            }
+        }
+        replayed.addAndGet(missed.size());
+        return missed;
+    }
+
+    // The sequence of an id from this run, or -1 for an id from another run or not ours at all
+    private long parseSequence(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(runId)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void fanOut(StreamEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            offer(subscriber, event);
+        }
+    }
+
+    private void heartbeat() {
+        fanOut(HEARTBEAT);
+    }
+
+    private void offer(Subscriber subscriber, StreamEvent event) {
+        boolean evict;
+        boolean schedule;
+        subscriber.lock.lock();
+        try {
+            // Events up to the registration were queued by start()
+            if (subscriber.closing || (event.sequence != 0 && event.sequence <= subscriber.lastQueued)) {
+                return;
+            }
+            evict = subscriber.pending.size() >= bufferSize;
+            if (evict) {
+                subscriber.close();
+            } else {
+                subscriber.pending.add(event);
+                if (event.sequence != 0) {
+                    subscriber.lastQueued = event.sequence;
+                }
+            }
+            schedule = !subscriber.draining;
+            subscriber.draining = true;
+        } finally {
+            subscriber.lock.unlock();
+        }
+        if (evict) {
+            subscribers.remove(subscriber);
+            evicted.incrementAndGet();
+        }
+        if (schedule) {
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Closes the subscribers whose current write has been blocked for longer than write-timeout.
+     */
+    private void closeStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.writeStartedNanos;
+            if (started != 0 && now - started > writeTimeoutNanos && subscriber.closeStalled(started)) {
+                subscribers.remove(subscriber);
+                evicted.incrementAndGet();
+            }
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            dispatcher.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        try {
+            writers.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Shutting down, or every thread is blocked on a client: this one is not served
+            if (subscribers.remove(subscriber) && !writers.isShutdown()) {
+                evicted.incrementAndGet();
+            }
+            subscriber.closed();
+            try {
+                subscriber.emitter.complete();
+            } catch (IllegalStateException completed) {
+                // The container has already closed this connection
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            StreamEvent event;
+            while ((event = subscriber.poll()) != null) {
+                if (event == CLOSE) {
+                    subscriber.emitter.complete();
+                    return;
+                }
+                subscriber.writeStartedNanos = System.nanoTime();
+                subscriber.emitter.send(event.toSse());
+                subscriber.writeStartedNanos = 0;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client is gone or the stream already completed
+            subscribers.remove(subscriber);
+            subscriber.closed();
+        } finally {
+            subscriber.writeStartedNanos = 0;
+        }
+    }
+
+    /**
+     * One stream's pending events, guarded by its lock. At most one drain runs for it at a time
+     * (draining), so its events are sent in order.
+     */
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<StreamEvent> pending = new ArrayDeque<>();
+        // The first drain is scheduled by subscribe
+        private boolean draining = true;
+        private boolean closing;
+        // Sequence of the last event queued, so one dispatched before the registration is not sent twice
+        private long lastQueued;
+        // When the write in progress started, 0 between writes
+        private volatile long writeStartedNanos;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // The replay is not limited by the buffer size
+        void start(List<StreamEvent> missed, long registeredAt) {
+            lock.lock();
+            try {
+                pending.addAll(missed);
+                lastQueued = registeredAt;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        StreamEvent poll() {
+            lock.lock();
+            try {
+                StreamEvent event = pending.poll();
+                if (event == null) {
+                    draining = false;
+                }
+                return event;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Called with the lock held: drops what is pending and completes the stream once the write
+         * in progress, if any, returns.
+         */
+        void close() {
+            closing = true;
+            pending.clear();
+            pending.add(CLOSE);
+        }
+
+        /**
+         * Closes the stream if the write that started at writeStarted is still in progress. The drain
+         * takes the lock for its next event right after a write, so it then sees the close.
+         */
+        boolean closeStalled(long writeStarted) {
+            lock.lock();
+            try {
+                if (closing || writeStartedNanos != writeStarted) {
+                    return false;
+                }
+                close();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void closed() {
+            lock.lock();
+            try {
+                closing = true;
+                pending.clear();
+                draining = false;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static class StreamEvent {
+        private final String id;
+        private final long sequence;
+        private final String name;
+        private final String data;
+
+        StreamEvent(String id, long sequence, String name, String data) {
+            this.id = id;
+            this.sequence = sequence;
+            this.name = name;
+            this.data = data;
+        }
+
+        SseEmitter.SseEventBuilder toSse() {
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().id(id);
+            if (name != null) {
+                builder.name(name).data(data);
+            }
+            return builder;
+        }
+    }
+
+    private static class EventThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        EventThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.secureapi.web;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Open post event streams and what was sent over them.
+ */
+@Component
+public class PostEventMetrics implements MeterBinder {
+
+    private final PostEventBroadcaster postEventBroadcaster;
+
+    public PostEventMetrics(PostEventBroadcaster postEventBroadcaster) {
+        this.postEventBroadcaster = postEventBroadcaster;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("posts.events.subscribers", postEventBroadcaster, PostEventBroadcaster::subscriberCount)
+                .description("Open post event streams")
+                .register(registry);
+        FunctionCounter.builder("posts.events.published", postEventBroadcaster, PostEventBroadcaster::publishedCount)
+                .description("Events sent to the post event streams")
+                .register(registry);
+        FunctionCounter.builder("posts.events.evicted", postEventBroadcaster, PostEventBroadcaster::evictedCount)
+                .description("Event streams closed because their client fell too far behind")
+                .register(registry);
+        FunctionCounter.builder("posts.events.replayed", postEventBroadcaster, PostEventBroadcaster::replayedCount)
+                .description("Events sent again to clients reconnecting with Last-Event-ID")
+                .register(registry);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.secureapi.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes query results straight to the response through the application ObjectMapper
+ * (so the XSS escaping from JacksonConfig still applies) without collecting them into a List first.
+ * The source stream is opened inside a read-only transaction that stays open while rows are written.
+ */
+@Component
+public class StreamingJsonWriter {
+
+    // Rows are flushed in small groups so the client sees the first bytes early
+    private static final int FLUSH_EVERY = 100;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public StreamingJsonWriter(ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Streams the rows as one JSON array.
+     */
+    public <T> StreamingResponseBody jsonArray(Supplier<Stream<T>> rows) {
+        return json(generator -> {
+            generator.writeStartArray();
+            writeItems(generator, rows);
+            generator.writeEndArray();
+        });
+    }
+
+    /**
+     * Streams the rows as newline-delimited JSON, one document per line.
+     */
+    public <T> StreamingResponseBody ndjson(Supplier<Stream<T>> rows) {
+        return json(generator -> writeRows(generator, rows, true));
+    }
+
+    /**
+     * Streams an arbitrary JSON document; use {@link #writeItems} for its large array parts.
+     */
+    public StreamingResponseBody json(JsonBody body) {
+        return outputStream -> readOnlyTransaction.executeWithoutResult(status -> write(outputStream, body));
+    }
+
+    /**
+     * Writes every row of the stream as an element of the currently open JSON array.
+     */
+    public <T> void writeItems(JsonGenerator generator, Supplier<Stream<T>> rows) throws IOException {
+        writeRows(generator, rows, false);
+    }
+
+    private <T> void writeRows(JsonGenerator generator, Supplier<Stream<T>> rows, boolean newlineDelimited)
+            throws IOException {
+        try (Stream<T> stream = rows.get()) {
+            int written = 0;
+            for (Iterator<T> iterator = stream.iterator(); iterator.hasNext(); ) {
+                rowWriter.writeValue(generator, iterator.next());
+                if (newlineDelimited) {
+                    generator.writeRaw('\n');
+                }
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+
+    private void write(OutputStream outputStream, JsonBody body) {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            // The servlet container owns the response stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            body.write(generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface JsonBody {
+        void write(JsonGenerator generator) throws IOException;
+    }
+}
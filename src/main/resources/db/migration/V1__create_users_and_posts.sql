@@ -0,0 +1,29 @@
+-- Same tables as the JPA mapping (checked at startup with ddl-auto=validate)
+
+CREATE TABLE users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(50)  NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    name     VARCHAR(50)  NOT NULL,
+    role     VARCHAR(255) NOT NULL,
+    -- Login and the filter look users up by username; the sorted index also serves the user directory pages
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+-- Pooled ids for batched inserts; the increment matches allocationSize on Post
+CREATE SEQUENCE posts_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE posts (
+    id         BIGINT        NOT NULL PRIMARY KEY,
+    title      VARCHAR(200)  NOT NULL,
+    content    VARCHAR(2000) NOT NULL,
+    author_id  BIGINT        NOT NULL,
+    created_at TIMESTAMP(6)  NOT NULL,
+    updated_at TIMESTAMP(6)  NOT NULL
+);
+
+-- Keyset pagination of the feed, newest first
+CREATE INDEX idx_posts_created_at_id ON posts (created_at DESC, id DESC);
+CREATE INDEX idx_posts_author_id ON posts (author_id);
+-- Added after its index, so H2 uses idx_posts_author_id for the key instead of creating a second index
+ALTER TABLE posts ADD CONSTRAINT fk_posts_author FOREIGN KEY (author_id) REFERENCES users (id);
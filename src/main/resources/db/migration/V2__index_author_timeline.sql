@@ -0,0 +1,3 @@
+-- Author pages are read newest first, so this index carries the feed order after the author.
+-- idx_posts_author_id stays: H2 only uses a single-column index for the foreign key
+CREATE INDEX idx_posts_author_created_at_id ON posts (author_id, created_at DESC, id DESC);